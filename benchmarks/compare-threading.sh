@@ -0,0 +1,54 @@
+#!/bin/sh
+# Throughput and latency of the service on platform threads versus virtual threads, at several
+# numbers of concurrent clients. Needs JDK 21 (JAVA_HOME or java on the PATH).
+#
+#   benchmarks/compare-threading.sh                       # 1000, 5000 and 10000 clients, 30 s each
+#   CLIENTS="1000 2000" SECONDS_PER_RUN=20 benchmarks/compare-threading.sh
+#
+# Each mode gets a fresh service (empty journal) started with -Djdk.tracePinnedThreads=short;
+# pinned virtual threads are counted from its log in target/threading-<mode>.log.
+set -e
+cd "$(dirname "$0")/.."
+
+CLIENTS=${CLIENTS:-"1000 5000 10000"}
+SECONDS_PER_RUN=${SECONDS_PER_RUN:-30}
+WARMUP_SECONDS=${WARMUP_SECONDS:-10}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+mvn -B -q -Pjava21 install -DskipTests
+mvn -B -q -Pjava21 dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+mvn -B -q -f benchmarks/pom.xml package
+APP_CLASSPATH="target/classes:$(cat target/classpath.txt)"
+
+# Same connection limits, JDBC pool and open-in-view setting as application-virtual.yml in both
+# modes so only the threading differs; logging of every SQL statement and the per-user rate limits
+# would otherwise dominate
+APP_ARGS="--spring.jpa.show-sql=false --security.rate-limit.enabled=false
+  --spring.jpa.open-in-view=false --spring.datasource.hikari.maximum-pool-size=20
+  --server.tomcat.max-connections=20000 --server.tomcat.accept-count=1000
+  --payment.journal.directory=target/threading-data/journal --payment.archive.enabled=false"
+
+for mode in platform virtual; do
+    rm -rf target/threading-data
+    log=target/threading-$mode.log
+    profile=default
+    [ "$mode" = virtual ] && profile=virtual
+    # shellcheck disable=SC2086
+    "$JAVA" -Djdk.tracePinnedThreads=short -cp "$APP_CLASSPATH" com.harshdeep.payment.PaymentApplication \
+        --spring.profiles.active=$profile $APP_ARGS > "$log" 2>&1 &
+    app=$!
+    until grep -q "Started PaymentApplication" "$log"; do
+        if ! kill -0 $app 2>/dev/null; then echo "$mode: service failed to start, see $log"; exit 1; fi
+        sleep 1
+    done
+
+    for clients in $CLIENTS; do
+        "$JAVA" -cp benchmarks/target/benchmarks.jar com.harshdeep.payment.benchmark.ConcurrentClientsLoadTest \
+            http://localhost:8081 "$clients" "$SECONDS_PER_RUN" "$WARMUP_SECONDS" "$mode"
+    done
+
+    kill $app
+    wait $app 2>/dev/null || true
+    echo "$mode: $(grep -c '<== monitors' "$log" || true) pinned virtual thread stack(s) reported"
+done
+rm -rf target/threading-data
@@ -0,0 +1,158 @@
+package com.harshdeep.payment.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load against a running service: {@code clients} concurrent clients, each on its
+ * own connection, alternately create a payment and list that user's payments, sending the next
+ * request as soon as the previous one answers. Prints throughput and latency percentiles after
+ * a warm-up; {@code benchmarks/compare-threading.sh} runs it against platform and virtual threads.
+ *
+ * <p>Clients are chains of asynchronous requests rather than threads, so 10,000 of them don't
+ * need 10,000 threads in the load generator. Being closed-loop, the percentiles are per-request
+ * service times and understate what clients arriving at a fixed rate would see.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.harshdeep.payment.benchmark.ConcurrentClientsLoadTest \
+ *     [base-url=http://localhost:8081] [clients=1000] [seconds=30] [warmup-seconds=10] [label=run]
+ * </pre>
+ */
+public class ConcurrentClientsLoadTest {
+
+    // Latency buckets of 100 µs up to 60 s; slower responses land in the last bucket
+    private static final long BUCKET_NANOS = 100_000;
+    private static final int BUCKETS = 600_000;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String token;
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    private ConcurrentClientsLoadTest(HttpClient client, String baseUrl, String token) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        String label = args.length > 4 ? args[4] : "run";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        ConcurrentClientsLoadTest test = new ConcurrentClientsLoadTest(client, baseUrl, login(client, baseUrl));
+
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            loops[i] = done;
+            test.loop(ThreadLocalRandom.current().nextLong(1, 100_000), true, done);
+        }
+        Thread.sleep(warmupSeconds * 1000L);
+        test.recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        test.recording = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        test.running = false;
+        CompletableFuture.allOf(loops).join();
+
+        long count = test.completed.sum();
+        System.out.printf("%-10s clients=%-6d throughput=%8.1f req/s  p50=%8.2f ms  p99=%8.2f ms  p99.9=%8.2f ms  "
+                        + "max=%8.2f ms  errors=%d%n",
+                label, clients, count / elapsed, test.percentile(0.50), test.percentile(0.99),
+                test.percentile(0.999), test.percentile(1.0), test.errors.sum());
+    }
+
+    // One client: create a payment, then list the user's payments, until the run ends
+    private void loop(long userId, boolean create, CompletableFuture<Void> done) {
+        if (!running) {
+            done.complete(null);
+            return;
+        }
+        HttpRequest request = create
+                ? authorized("/payments")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"userId\":" + userId
+                                + ",\"amount\":25.00,\"currency\":\"USD\",\"paymentMethod\":\"CREDIT_CARD\"}"))
+                        .build()
+                : authorized("/payments/user/" + userId + "?limit=20").GET().build();
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    record(sent, error == null && response.statusCode() < 400);
+                    loop(userId, !create, done);
+                });
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private void record(long sentNanos, boolean ok) {
+        if (!recording) {
+            return;
+        }
+        if (!ok) {
+            errors.increment();
+            return;
+        }
+        completed.increment();
+        int bucket = (int) Math.min((System.nanoTime() - sentNanos) / BUCKET_NANOS, BUCKETS - 1);
+        latencies.incrementAndGet(bucket);
+    }
+
+    private double percentile(double quantile) {
+        long total = completed.sum();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latencies.get(i);
+            if (seen >= rank) {
+                return (i + 1) * BUCKET_NANOS / 1e6;
+            }
+        }
+        return BUCKETS * BUCKET_NANOS / 1e6;
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        String credentials = "{\"username\":\"loadtest\",\"password\":\"loadtest\"}";
+        client.send(json(baseUrl + "/auth/register", credentials), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> login = client.send(json(baseUrl + "/auth/login", credentials),
+                HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + login.statusCode() + ": " + login.body());
+        }
+        return login.body();
+    }
+
+    private static HttpRequest json(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
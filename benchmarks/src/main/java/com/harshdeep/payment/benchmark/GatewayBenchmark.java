@@ -0,0 +1,80 @@
+package com.harshdeep.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.gateway.GatewayProperties;
+import com.harshdeep.payment.gateway.GatewayResult;
+import com.harshdeep.payment.gateway.HttpPaymentGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of {@link #BURST} concurrent authorizations through {@link HttpPaymentGateway}
+ * against an in-process {@link StubGatewayServer}, reported per authorization. The calls don't
+ * hold threads, so a burst takes about one round trip of stub latency rather than {@code BURST}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class GatewayBenchmark {
+
+    private static final int BURST = 100;
+
+    @Param({"0", "20"})
+    private long latencyMillis;
+
+    private StubGatewayServer stub;
+    private HttpPaymentGateway gateway;
+    private Payment[] payments;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new StubGatewayServer(0, latencyMillis, 0, 0.0, 0.25);
+        GatewayProperties properties = new GatewayProperties();
+        properties.setType("http");
+        properties.setUrl("http://localhost:" + stub.port() + "/authorize");
+        properties.setMaxConcurrency(BURST);
+        gateway = new HttpPaymentGateway(properties, new ObjectMapper(), new SimpleMeterRegistry());
+        payments = new Payment[BURST];
+        for (int i = 0; i < BURST; i++) {
+            Payment payment = new Payment();
+            payment.setTransactionId("TXN-BENCH-" + i);
+            payment.setUserId((long) i);
+            payment.setAmount(new BigDecimal("250.00"));
+            payment.setCurrency("USD");
+            payment.setPaymentMethod("CREDIT_CARD");
+            payments[i] = payment;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.shutdown();
+        stub.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public int authorizeBurst() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[BURST];
+        for (int i = 0; i < BURST; i++) {
+            calls[i] = gateway.authorize(payments[i]);
+        }
+        CompletableFuture.allOf(calls).join();
+        int approved = 0;
+        for (CompletableFuture<?> call : calls) {
+            if (((GatewayResult) call.join()).approved()) {
+                approved++;
+            }
+        }
+        return approved;
+    }
+}
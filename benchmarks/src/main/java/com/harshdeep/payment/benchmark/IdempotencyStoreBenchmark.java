@@ -0,0 +1,68 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.idempotency.IdempotencyStore;
+import com.harshdeep.payment.journal.PaymentJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idempotency store bookkeeping from 8 threads, with the journal disabled: first use of fresh
+ * keys (insert, plus TTL and size eviction once full) versus retries of keys already answered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+public class IdempotencyStoreBenchmark {
+
+    private static final int KEPT_KEYS = 100_000;
+
+    private IdempotencyStore store;
+    private String[] answered;
+    private final AtomicLong fresh = new AtomicLong();
+    private CompletableFuture<ResponseEntity<Payment>> response;
+
+    @Setup
+    public void setUp() {
+        PaymentJournal journal = new PaymentJournal(new SimpleMeterRegistry(), false, Path.of("unused"),
+                DataSize.ofMegabytes(1), PaymentJournal.SyncMode.GROUP);
+        store = new IdempotencyStore(journal, new SimpleMeterRegistry(), Duration.ofHours(24), KEPT_KEYS);
+        Payment payment = new Payment();
+        payment.setId(1L);
+        payment.setUserId(42L);
+        payment.setCurrency("USD");
+        payment.setAmountMinor(25_000);
+        response = CompletableFuture.completedFuture(new ResponseEntity<>(payment, HttpStatus.CREATED));
+        answered = new String[KEPT_KEYS / 2];
+        for (int i = 0; i < answered.length; i++) {
+            answered[i] = IdempotencyStore.scope("user", "POST /payments", "answered-" + i);
+            store.execute(answered[i], "fp", () -> response);
+        }
+    }
+
+    @Benchmark
+    public CompletableFuture<ResponseEntity<Payment>> firstUse() {
+        String key = IdempotencyStore.scope("user", "POST /payments", "fresh-" + fresh.incrementAndGet());
+        return store.execute(key, "fp", () -> response);
+    }
+
+    @Benchmark
+    public CompletableFuture<ResponseEntity<Payment>> retry() {
+        String key = answered[ThreadLocalRandom.current().nextInt(answered.length)];
+        return store.execute(key, "fp", () -> response);
+    }
+}
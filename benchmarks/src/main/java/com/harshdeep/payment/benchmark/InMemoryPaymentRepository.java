@@ -0,0 +1,66 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.repository.PaymentRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-in for {@link PaymentRepository} so service benchmarks measure the
+ * service code rather than JDBC. Only the methods the hot paths call are implemented.
+ */
+final class InMemoryPaymentRepository {
+
+    private final Map<Long, Payment> rows = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private InMemoryPaymentRepository() {
+    }
+
+    static PaymentRepository create() {
+        InMemoryPaymentRepository store = new InMemoryPaymentRepository();
+        return (PaymentRepository) Proxy.newProxyInstance(
+                PaymentRepository.class.getClassLoader(),
+                new Class<?>[]{PaymentRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> store.save((Payment) args[0]);
+                    case "saveAll" -> store.saveAll((Iterable<?>) args[0]);
+                    case "findById" -> Optional.ofNullable(store.rows.get((Long) args[0]));
+                    case "flush" -> null;
+                    case "count" -> (long) store.rows.size();
+                    case "deleteAll" -> {
+                        if (args != null) {
+                            throw new UnsupportedOperationException("deleteAll(Iterable)");
+                        }
+                        store.rows.clear();
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryPaymentRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private Payment save(Payment payment) {
+        if (payment.getId() == null) {
+            payment.setId(ids.incrementAndGet());
+        }
+        rows.put(payment.getId(), payment);
+        return payment;
+    }
+
+    private List<Payment> saveAll(Iterable<?> payments) {
+        List<Payment> saved = new ArrayList<>();
+        for (Object payment : payments) {
+            saved.add(save((Payment) payment));
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,72 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.journal.PaymentJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Durable journal appends from 8 threads: one fsync per write versus group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class JournalBenchmark {
+
+    @Param({"GROUP", "EACH"})
+    private PaymentJournal.SyncMode syncMode;
+
+    private final AtomicLong ids = new AtomicLong();
+    private Path directory;
+    private PaymentJournal journal;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-bench");
+        journal = new PaymentJournal(new SimpleMeterRegistry(), true, directory,
+                DataSize.ofMegabytes(256), syncMode);
+        journal.open(payment -> { }, archivedId -> { }, key -> { });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Payment append() {
+        Payment payment = new Payment();
+        payment.setId(ids.incrementAndGet());
+        payment.setUserId(42L);
+        payment.setCurrency("USD");
+        payment.setAmountMinor(25_000);
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setTransactionId("HD-0A8B065NG0PDW");
+        payment.setRemarks("Payment processed successfully");
+        payment.setCreatedAt(LocalDateTime.now());
+        payment.setVersion(0L);
+        journal.append(payment);
+        return payment;
+    }
+}
@@ -0,0 +1,55 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.security.JwtUtil;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification; {@code extractUsernameUncached} is the baseline without the
+ * verified-token cache, a parser with the same key that checks the signature on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // Same secret as JwtUtil, so the baseline parser accepts its tokens
+    private static final String SECRET = "mysecretkeymysecretkeymysecretkey";
+
+    private JwtUtil cached;
+    private JwtParser uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtUtil(new SimpleMeterRegistry(), 10_000);
+        uncached = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        token = cached.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncached.parseClaimsJws(token).getBody().getSubject();
+    }
+}
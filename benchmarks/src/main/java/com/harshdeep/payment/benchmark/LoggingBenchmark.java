@@ -0,0 +1,135 @@
+package com.harshdeep.payment.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.service.PaymentEventLog;
+import com.harshdeep.payment.service.PaymentMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logging cost of one successful payment from 4 threads, written to a file:
+ * <ul>
+ *   <li>{@code per-step}: the five lines the controller and service used to log per payment,
+ *       through a synchronous appender;</li>
+ *   <li>{@code event-sync}: one {@link PaymentEventLog} event instead, still synchronous;</li>
+ *   <li>{@code event}: the event through the non-blocking async appender
+ *       configured in {@code logback-spring.xml};</li>
+ *   <li>{@code sampled-event}: the same at the production sample rate of 1%.</li>
+ * </ul>
+ * The async appender drops events rather than block when its worker falls behind, which a loop
+ * doing nothing but log makes it do most of the time: {@code event} then measures what a
+ * request thread pays, not how many events get written. Tear-down prints how many lines
+ * actually reached the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m %kvp%n";
+
+    @Param({"per-step", "event-sync", "event", "sampled-event"})
+    private String logging;
+
+    private final LongAdder payments = new LongAdder();
+    private Path file;
+    private Appender<ILoggingEvent> appender;
+    private Logger controllerLog;
+    private Logger serviceLog;
+    private PaymentEventLog events;
+    private Payment payment;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("logging-bench", ".log");
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+        appender = fileAppender;
+        if (logging.equals("event") || logging.equals("sampled-event")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+
+        controllerLog = LoggerFactory.getLogger("com.harshdeep.payment.controller.PaymentController");
+        serviceLog = LoggerFactory.getLogger("com.harshdeep.payment.service.PaymentService");
+        events = new PaymentEventLog(logging.equals("sampled-event") ? 0.01 : 1.0);
+
+        payment = new Payment();
+        payment.setId(4_503_599_627_370_497L);
+        payment.setTransactionId("TXN-1700000000000-0001");
+        payment.setUserId(42L);
+        payment.setAmount(new BigDecimal("250.00"));
+        payment.setCurrency("USD");
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setRemarks("Payment processed successfully");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        // Stopping the async appender waits (up to a second) for its queue to drain
+        appender.stop();
+        long lines;
+        try (var stream = Files.lines(file)) {
+            lines = stream.count();
+        }
+        System.out.printf("%n%s: %d payment(s), %d line(s) written%n", logging, payments.sum(), lines);
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).reset();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void logPayment() {
+        payments.increment();
+        if (logging.equals("per-step")) {
+            controllerLog.info("POST /payments - Creating new payment");
+            serviceLog.info("Creating payment for user ID: {}, Amount: {} {}",
+                    payment.getUserId(), payment.getAmount(), payment.getCurrency());
+            serviceLog.info("Transaction initiated with ID: {}", payment.getTransactionId());
+            serviceLog.info("Payment {} completed successfully", payment.getTransactionId());
+            serviceLog.info("Payment saved to database with ID: {}, Status: {}",
+                    payment.getId(), payment.getStatus());
+        } else {
+            events.processed("payment.created", payment, PaymentMetrics.REASON_NONE, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.harshdeep.payment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency on a seeded one-million-row payment table in H2, with and without the
+ * indexes declared on the Payment entity. The table comes from the application's
+ * {@code db/shard-schema.sql}; the unindexed variant drops its secondary indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PaymentLookupBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int USERS = 10_000;
+
+    @Param({"indexed", "unindexed"})
+    private String schema;
+
+    private Connection connection;
+    private PreparedStatement byTransactionId;
+    private PreparedStatement userPage;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:lookup_" + schema);
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/shard-schema.sql"));
+        if (schema.equals("unindexed")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("drop index idx_payment_user_created");
+                statement.execute("drop index idx_payment_created");
+                statement.execute("drop index uk_payment_transaction_id");
+            }
+        }
+
+        connection.setAutoCommit(false);
+        long start = System.currentTimeMillis() - ROWS * 1000L;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into payment (id, user_id, amount_minor, currency, payment_method, status,"
+                        + " transaction_id, remarks, created_at, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setLong(1, i);
+                insert.setLong(2, i % USERS);
+                insert.setLong(3, (i % 500) * 100L);
+                insert.setString(4, "USD");
+                insert.setString(5, "CREDIT_CARD");
+                insert.setString(6, "SUCCESS");
+                insert.setString(7, "TX" + i);
+                insert.setString(8, "Payment processed successfully");
+                insert.setTimestamp(9, new Timestamp(start + i * 1000L));
+                insert.setLong(10, 0);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        byTransactionId = connection.prepareStatement("select * from payment where transaction_id = ?");
+        userPage = connection.prepareStatement(
+                "select * from payment where user_id = ? order by created_at, id limit 50");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void findByTransactionId(Blackhole blackhole) throws SQLException {
+        byTransactionId.setString(1, "TX" + ThreadLocalRandom.current().nextInt(ROWS));
+        try (ResultSet rows = byTransactionId.executeQuery()) {
+            blackhole.consume(rows.next());
+        }
+    }
+
+    @Benchmark
+    public void firstPageByUserId(Blackhole blackhole) throws SQLException {
+        userPage.setLong(1, ThreadLocalRandom.current().nextInt(USERS));
+        try (ResultSet rows = userPage.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getLong(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.harshdeep.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of payment lists, configured like Spring Boot's default mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<Payment> payments;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        payments = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setUserId((long) (i % 100));
+            payment.setAmount(BigDecimal.valueOf(1000 + i, 2));
+            payment.setCurrency("USD");
+            payment.setPaymentMethod("CREDIT_CARD");
+            payment.setStatus(PaymentStatus.SUCCESS);
+            payment.setTransactionId("HD-0A8B065NG" + i);
+            payment.setRemarks("Payment processed successfully");
+            payment.setCreatedAt(now.plusSeconds(i));
+            payments.add(payment);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(payments);
+    }
+}
@@ -0,0 +1,95 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.archive.PaymentArchive;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.gateway.SimulatedPaymentGateway;
+import com.harshdeep.payment.journal.PaymentJournal;
+import com.harshdeep.payment.repository.PaymentRepository;
+import com.harshdeep.payment.risk.RiskEngine;
+import com.harshdeep.payment.service.*;
+import com.harshdeep.payment.shard.PaymentIdGenerator;
+import com.harshdeep.payment.shard.ShardRouter;
+import com.harshdeep.payment.shard.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * createPayment end to end (ID generation, risk rules, simulated gateway, the hand-off to the
+ * writer pool, summary and cache updates) against an in-memory repository, with the journal disabled (see {@link JournalBenchmark}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("250.00");
+
+    private PaymentRepository repository;
+    private PaymentService service;
+    private SettlementPipeline pipeline;
+    private PaymentWriter writer;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository = InMemoryPaymentRepository.create();
+        pipeline = new SettlementPipeline(registry, 1, 1);
+        writer = new PaymentWriter(registry, 4, 1000);
+        PaymentArchive archive = new PaymentArchive(registry, false, Path.of("unused"), 1024);
+        ShardRouter router = new ShardRouter(new ShardingProperties());
+        service = new PaymentService(repository, null, null,
+                router,
+                new PaymentIdGenerator(1),
+                new TransactionIdGenerator(1),
+                pipeline,
+                writer,
+                new RiskEngine(new DefaultResourceLoader(), registry, "classpath:benchmark-risk-rules.yml"),
+                new SimulatedPaymentGateway(0.75),
+                new UserPaymentSummaries(repository, archive, router),
+                new PaymentCache(registry, 10_000, Duration.ofMinutes(5)),
+                new PaymentMetrics(registry),
+                new PaymentEventLog(1.0),
+                new PaymentJournal(registry, false, Path.of("unused"), DataSize.ofMegabytes(1),
+                        PaymentJournal.SyncMode.GROUP),
+                archive,
+                false, 1000, 50, 500, Duration.ofDays(14));
+    }
+
+    // Every call stores a payment; without this the map grows across the run and later iterations slow down
+    @Setup(Level.Iteration)
+    public void clearRows() {
+        repository.deleteAll();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+        writer.shutdown();
+    }
+
+    @Benchmark
+    public Payment createPayment() {
+        Payment payment = new Payment();
+        payment.setUserId(42L);
+        payment.setAmount(AMOUNT);
+        payment.setCurrency("USD");
+        payment.setPaymentMethod("CREDIT_CARD");
+        return service.createPayment(payment);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Payment createPaymentContended() {
+        return createPayment();
+    }
+}
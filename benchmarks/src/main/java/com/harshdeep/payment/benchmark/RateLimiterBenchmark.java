@@ -0,0 +1,92 @@
+package com.harshdeep.payment.benchmark;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harshdeep.payment.security.RateLimitProperties;
+import com.harshdeep.payment.security.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter under contention from 8 threads: every thread hitting one user's bucket
+ * (a single hot CAS) versus spread across many users, against synchronized buckets behind the
+ * same kind of cache. The refill rate is high enough that requests are allowed, so this
+ * measures the bookkeeping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "100000"})
+    private int users;
+
+    private RateLimiter limiter;
+    private RateLimiter.Limit limit;
+    private String[] names;
+    private Cache<String, SynchronizedBucket> synchronizedBuckets;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName("bench");
+        rule.setMethod("POST");
+        rule.setPath("/payments");
+        rule.setCapacity(1_000_000);
+        rule.setRefillPerSecond(1e9);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(rule));
+        limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        limit = limiter.limitFor("POST", "/payments");
+        names = new String[users];
+        for (int i = 0; i < users; i++) {
+            names[i] = "user-" + i;
+        }
+        synchronizedBuckets = Caffeine.newBuilder().maximumSize(1_000_000).build();
+    }
+
+    @Benchmark
+    public long lockFree() {
+        String user = names[ThreadLocalRandom.current().nextInt(users)];
+        return limiter.tryAcquire(limit, user);
+    }
+
+    // Monitor-based buckets: what the single-CAS bucket replaces
+    @Benchmark
+    public boolean synchronizedBuckets() {
+        String user = names[ThreadLocalRandom.current().nextInt(users)];
+        return synchronizedBuckets.get(user, key -> new SynchronizedBucket(1_000_000, 1e9)).tryAcquire();
+    }
+
+    private static final class SynchronizedBucket {
+        private final double capacity;
+        private final double perNano;
+        private double tokens;
+        private long last = System.nanoTime();
+
+        SynchronizedBucket(double capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perNano = perSecond / 1e9;
+            this.tokens = capacity;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - last) * perNano);
+            last = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
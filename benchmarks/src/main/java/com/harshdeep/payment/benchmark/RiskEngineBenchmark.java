@@ -0,0 +1,76 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.risk.RiskDecision;
+import com.harshdeep.payment.risk.RiskEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One risk decision through the compiled pipeline (amount limit, two payment-method rules and
+ * velocity), for one hot user versus many, plus the shared {@link Random} approval draw the
+ * simulated gateway replaced next to {@link ThreadLocalRandom} under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RiskEngineBenchmark {
+
+    private static final String[] CURRENCIES = {"USD", "EUR", "JPY", "INR"};
+    private static final String[] METHODS = {"CREDIT_CARD", "UPI", "CASH", "NET_BANKING"};
+
+    @Param({"1", "100000"})
+    private int users;
+
+    private RiskEngine engine;
+    private Payment[] payments;
+    private final Random sharedRandom = new Random();
+
+    @Setup
+    public void setUp() {
+        engine = new RiskEngine(new DefaultResourceLoader(), new SimpleMeterRegistry(),
+                "classpath:benchmark-risk-rules.yml");
+        payments = new Payment[Math.max(users, 1024)];
+        for (int i = 0; i < payments.length; i++) {
+            Payment payment = new Payment();
+            payment.setUserId((long) (i % users));
+            payment.setCurrency(CURRENCIES[i % CURRENCIES.length]);
+            payment.setAmount(new BigDecimal(100 + i % 900));
+            payment.setPaymentMethod(METHODS[i % METHODS.length]);
+            payments[i] = payment;
+        }
+    }
+
+    @Benchmark
+    public RiskDecision evaluate() {
+        return engine.evaluate(payments[ThreadLocalRandom.current().nextInt(payments.length)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RiskDecision evaluateContended() {
+        return evaluate();
+    }
+
+    // The old status decision drew from one Random shared by every request thread
+    @Benchmark
+    @Threads(4)
+    public boolean sharedRandomContended() {
+        return sharedRandom.nextDouble() < 0.75;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean threadLocalRandomContended() {
+        return ThreadLocalRandom.current().nextDouble() < 0.75;
+    }
+}
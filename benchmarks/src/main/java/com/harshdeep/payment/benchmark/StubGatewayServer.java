@@ -0,0 +1,103 @@
+package com.harshdeep.payment.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local acquirer for exercising {@code payment.gateway.type=http}: answers
+ * {@code POST /authorize} after a configurable delay, failing or declining a share of calls.
+ * Replies are scheduled rather than slept on, so thousands of slow calls can be open at once.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.harshdeep.payment.benchmark.StubGatewayServer \
+ *     [port=9090] [latency-ms=50] [jitter-ms=20] [error-rate=0.0] [decline-rate=0.25]
+ * </pre>
+ */
+public class StubGatewayServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService replies;
+    private final AtomicLong references = new AtomicLong();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final double declineRate;
+
+    public StubGatewayServer(int port, long latencyMillis, long jitterMillis, double errorRate, double declineRate)
+            throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.declineRate = declineRate;
+        this.handlers = Executors.newFixedThreadPool(4);
+        this.replies = Executors.newScheduledThreadPool(2);
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/authorize", this::authorize);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void authorize(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        boolean error = random.nextDouble() < errorRate;
+        boolean declined = random.nextDouble() < declineRate;
+        replies.schedule(() -> reply(exchange, error, declined), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reply(HttpExchange exchange, boolean error, boolean declined) {
+        try (exchange) {
+            if (error) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            String json = declined
+                    ? "{\"approved\":false,\"reference\":null,\"message\":\"Declined by issuer\"}"
+                    : "{\"approved\":true,\"reference\":\"stub-" + references.incrementAndGet()
+                            + "\",\"message\":\"Payment processed successfully\"}";
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (IOException e) {
+            // The caller gave up (timed out) before the reply
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        replies.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 50;
+        long jitter = args.length > 2 ? Long.parseLong(args[2]) : 20;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        double declineRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.25;
+        StubGatewayServer stub = new StubGatewayServer(port, latency, jitter, errorRate, declineRate);
+        System.out.printf("Stub gateway on :%d (latency %d+%d ms, error rate %.2f, decline rate %.2f)%n",
+                stub.port(), latency, jitter, errorRate, declineRate);
+    }
+}
@@ -0,0 +1,37 @@
+package com.harshdeep.payment.benchmark;
+
+import com.harshdeep.payment.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction ID generation compared with the String.format scheme it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionIdBenchmark {
+
+    private final TransactionIdGenerator generator = new TransactionIdGenerator(1);
+    private final Long userId = 42L;
+
+    @Benchmark
+    public String generator() {
+        return generator.nextTransactionId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generatorEightThreads() {
+        return generator.nextTransactionId();
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        return String.format("HD-%d-%d", userId, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,107 @@
+package com.harshdeep.payment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response times per operation, in microseconds, measured from when each request was due to be
+ * sent rather than when it was: a request that left late because the generator or the client
+ * connection pool fell behind is charged for the wait, which is the correction for coordinated
+ * omission. Only 2xx responses are recorded; the rest are counted by kind.
+ */
+public class LatencyReport {
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public void recordSuccess(Operation operation, long latencyNanos) {
+        stats.get(operation).latencies.recordValue(Math.max(1, latencyNanos / 1000));
+    }
+
+    public void recordStatus(Operation operation, int status) {
+        Stats s = stats.get(operation);
+        if (status == 429) {
+            s.rateLimited.increment();
+        } else if (status >= 500) {
+            s.serverErrors.increment();
+        } else {
+            s.clientErrors.increment();
+        }
+    }
+
+    public void recordFailure(Operation operation) {
+        stats.get(operation).failures.increment();
+    }
+
+    /**
+     * Prints a line per operation and writes {@code <operation>.hgrm} plus {@code all.hgrm}
+     * (percentile distributions in milliseconds, readable by HdrHistogram's plotter).
+     */
+    public void write(PrintStream out, Path directory, double seconds) throws IOException {
+        Files.createDirectories(directory);
+        Histogram all = new Histogram(3);
+        out.printf("%-30s %9s %9s %9s %9s %9s %9s %9s %7s %7s %7s %7s%n", "endpoint", "count", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "4xx", "429", "5xx", "failed");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Operation operation = entry.getKey();
+            Stats s = entry.getValue();
+            Histogram histogram = s.latencies.copy();
+            if (histogram.getTotalCount() == 0 && s.errors() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            line(out, operation.endpoint(), histogram, seconds, s);
+            hgrm(directory.resolve(operation.key() + ".hgrm"), histogram);
+        }
+        line(out, "all", all, seconds, null);
+        hgrm(directory.resolve("all.hgrm"), all);
+        out.printf("Histograms written to %s%n", directory.toAbsolutePath());
+    }
+
+    private static void line(PrintStream out, String name, Histogram h, double seconds, Stats s) {
+        out.printf("%-30s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name, h.getTotalCount(),
+                h.getTotalCount() / seconds, millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9),
+                h.getMaxValue() / 1000.0);
+        if (s != null) {
+            out.printf(" %7d %7d %7d %7d", s.clientErrors.sum(), s.rateLimited.sum(), s.serverErrors.sum(),
+                    s.failures.sum());
+        }
+        out.println();
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static void hgrm(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static final class Stats {
+        // Auto-resizing, so a response of any length can be recorded
+        final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        long errors() {
+            return clientErrors.sum() + rateLimited.sum() + serverErrors.sum() + failures.sum();
+        }
+    }
+}
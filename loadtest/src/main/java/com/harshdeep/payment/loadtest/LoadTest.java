@@ -0,0 +1,246 @@
+package com.harshdeep.payment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load against a running service. Registers and logs in {@code users} users, then
+ * starts requests at a fixed {@code rate} drawn from a mix of creates, lookups by id, listings
+ * by user, refunds and logins, whether or not earlier requests have answered, the way independent
+ * clients arrive. Lookups and refunds use payments the run created; until there are some, they
+ * are sent as creates instead. Logins repeat one of the run's users' logins, which costs a BCrypt
+ * check on the service (e.g. {@code mix=login:50,get:50} shows what a login flood does to reads).
+ *
+ * <p>After {@code warmup} seconds, requests due in the next {@code duration} seconds are
+ * recorded in a {@link LatencyReport}; the run waits for all of them to answer or time out
+ * before printing the report and writing the histograms.
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar [base-url=http://localhost:8081] [rate=100] [duration=60]
+ *     [warmup=10] [users=50] [payers=1000] [mix=create:40,get:30,list:20,refund:10] [out=target/loadtest]
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final String PASSWORD = "loadtest-password";
+    // Recently created payments, picked from at random by lookups
+    private static final int RECENT_PAYMENTS = 4096;
+    // Refunds need payments that succeeded and weren't refunded yet; more than this aren't kept
+    private static final int MAX_REFUNDABLE = 100_000;
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LatencyReport report = new LatencyReport();
+    private final Operation[] mix;
+    private final List<String> credentials = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final AtomicLongArray recentPayments = new AtomicLongArray(RECENT_PAYMENTS);
+    private final AtomicLong created = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> refundable = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger refundableCount = new AtomicInteger();
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    LoadTest(LoadTestOptions options, HttpClient client) {
+        this.options = options;
+        this.client = client;
+        this.mix = expand(options.mix());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        LoadTest test = new LoadTest(options, client);
+        test.logIn();
+        System.out.printf("Running %.1f req/s against %s for %d s after %d s of warm-up, %d users%n",
+                options.rate(), options.baseUrl(), options.durationSeconds(), options.warmupSeconds(), options.users());
+        long lagNanos = test.run();
+        test.report.write(System.out, options.outputDirectory(), options.durationSeconds());
+        if (lagNanos > 1_000_000) {
+            System.out.printf("The generator started requests up to %.1f ms late; that wait is included above%n",
+                    lagNanos / 1e6);
+        }
+    }
+
+    // Registers every user concurrently (BCrypt makes this slow one at a time) and keeps their tokens
+    private void logIn() throws IOException, InterruptedException {
+        String prefix = "loadtest-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+        List<CompletableFuture<String>> logins = new ArrayList<>();
+        for (int i = 0; i < options.users(); i++) {
+            String credentials = "{\"username\":\"" + prefix + i + "\",\"password\":\"" + PASSWORD + "\"}";
+            this.credentials.add(credentials);
+            logins.add(client.sendAsync(json("/auth/register", credentials), HttpResponse.BodyHandlers.ofString())
+                    .thenCompose(registered -> {
+                        if (registered.statusCode() != 200) {
+                            throw new IllegalStateException("Registration failed with " + registered.statusCode()
+                                    + ": " + registered.body());
+                        }
+                        return client.sendAsync(json("/auth/login", credentials), HttpResponse.BodyHandlers.ofString());
+                    })
+                    .thenApply(login -> {
+                        if (login.statusCode() != 200) {
+                            throw new IllegalStateException("Login failed with " + login.statusCode() + ": " + login.body());
+                        }
+                        return login.body();
+                    }));
+        }
+        for (CompletableFuture<String> login : logins) {
+            tokens.add(login.join());
+        }
+    }
+
+    /**
+     * Starts each request at its scheduled time, or at once if that has passed, and returns how
+     * late the latest one started.
+     */
+    long run() throws InterruptedException {
+        double intervalNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long recordFrom = start + options.warmupSeconds() * 1_000_000_000L;
+        long end = recordFrom + options.durationSeconds() * 1_000_000_000L;
+        long maxLag = 0;
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (due >= recordFrom) {
+                maxLag = Math.max(maxLag, -wait);
+            }
+            send(due, due >= recordFrom);
+        }
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() + 5_000_000_000L;
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        return maxLag;
+    }
+
+    private void send(long dueNanos, boolean recorded) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = mix[random.nextInt(mix.length)];
+        int user = random.nextInt(tokens.size());
+        String token = tokens.get(user);
+        long paymentId = 0;
+        if (operation == Operation.GET) {
+            paymentId = recentPayment(random);
+        } else if (operation == Operation.REFUND) {
+            Long id = refundable.poll();
+            if (id != null) {
+                refundableCount.decrementAndGet();
+                paymentId = id;
+            }
+        }
+        if ((operation == Operation.GET || operation == Operation.REFUND) && paymentId == 0) {
+            operation = Operation.CREATE;
+        }
+
+        HttpRequest request = switch (operation) {
+            case CREATE -> authorized("/payments", token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"userId\":" + random.nextInt(1, options.payers() + 1)
+                            + ",\"amount\":" + random.nextInt(1, 500) + ".00"
+                            + ",\"currency\":\"USD\",\"paymentMethod\":\"CREDIT_CARD\"}"))
+                    .build();
+            case GET -> authorized("/payments/" + paymentId, token).GET().build();
+            case LIST -> authorized("/payments/user/" + random.nextInt(1, options.payers() + 1) + "?limit=20", token)
+                    .GET().build();
+            case REFUND -> authorized("/payments/" + paymentId + "/refund", token)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            case LOGIN -> json("/auth/login", credentials.get(user));
+        };
+
+        Operation sent = operation;
+        outstanding.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - dueNanos;
+                    outstanding.decrementAndGet();
+                    if (error == null && response.statusCode() < 300 && sent == Operation.CREATE) {
+                        remember(response.body());
+                    }
+                    if (!recorded) {
+                        return;
+                    }
+                    if (error != null) {
+                        report.recordFailure(sent);
+                    } else if (response.statusCode() >= 300) {
+                        report.recordStatus(sent, response.statusCode());
+                    } else {
+                        report.recordSuccess(sent, latency);
+                    }
+                });
+    }
+
+    private long recentPayment(ThreadLocalRandom random) {
+        long count = Math.min(created.get(), RECENT_PAYMENTS);
+        return count == 0 ? 0 : recentPayments.get(random.nextInt((int) count));
+    }
+
+    private void remember(String body) {
+        JsonNode payment;
+        try {
+            payment = mapper.readTree(body);
+        } catch (IOException e) {
+            return;
+        }
+        long id = payment.path("id").asLong();
+        if (id == 0) {
+            return;
+        }
+        recentPayments.set((int) (created.getAndIncrement() % RECENT_PAYMENTS), id);
+        if ("SUCCESS".equals(payment.path("status").asText()) && refundableCount.get() < MAX_REFUNDABLE) {
+            refundableCount.incrementAndGet();
+            refundable.add(id);
+        }
+    }
+
+    private HttpRequest.Builder authorized(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest json(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // One slot per unit of weight, so picking a random slot follows the mix
+    private static Operation[] expand(Map<Operation, Integer> weights) {
+        List<Operation> slots = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        return slots.toArray(new Operation[0]);
+    }
+}
@@ -0,0 +1,79 @@
+package com.harshdeep.payment.loadtest;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for a run, given as {@code key=value} arguments; anything left out keeps its default.
+ *
+ * @param baseUrl         the service, e.g. {@code http://localhost:8081}
+ * @param rate            requests per second started, whatever the service's response times
+ * @param durationSeconds how long to record after the warm-up
+ * @param warmupSeconds   load applied before recording starts
+ * @param users           logins to spread requests over; the per-user rate limits apply to each
+ * @param payers          payment {@code userId}s to spread payments over (1 to payers)
+ * @param mix             relative weight of each operation
+ * @param outputDirectory where the {@code .hgrm} files are written
+ */
+public record LoadTestOptions(String baseUrl,
+                              double rate,
+                              int durationSeconds,
+                              int warmupSeconds,
+                              int users,
+                              int payers,
+                              Map<Operation, Integer> mix,
+                              Path outputDirectory) {
+
+    public static LoadTestOptions parse(String[] args) {
+        String baseUrl = "http://localhost:8081";
+        double rate = 100;
+        int duration = 60;
+        int warmup = 10;
+        int users = 50;
+        int payers = 1000;
+        String mix = "create:40,get:30,list:20,refund:10";
+        String out = "target/loadtest";
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq)) {
+                case "base-url" -> baseUrl = value;
+                case "rate" -> rate = Double.parseDouble(value);
+                case "duration" -> duration = Integer.parseInt(value);
+                case "warmup" -> warmup = Integer.parseInt(value);
+                case "users" -> users = Integer.parseInt(value);
+                case "payers" -> payers = Integer.parseInt(value);
+                case "mix" -> mix = value;
+                case "out" -> out = value;
+                default -> throw new IllegalArgumentException("Unknown option '" + arg.substring(0, eq) + "'");
+            }
+        }
+        if (rate <= 0 || duration <= 0 || warmup < 0 || users <= 0 || payers <= 0) {
+            throw new IllegalArgumentException("rate, duration, users and payers must be positive and warmup not negative");
+        }
+        return new LoadTestOptions(baseUrl, rate, duration, warmup, users, payers, parseMix(mix), Path.of(out));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix, got '" + part + "'");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights can't be negative: '" + part + "'");
+            }
+            weights.put(Operation.fromKey(pair[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,39 @@
+package com.harshdeep.payment.loadtest;
+
+/**
+ * The API calls the load test mixes; {@link #key} is the name used in {@code mix=} and for the
+ * histogram file.
+ */
+public enum Operation {
+
+    CREATE("create", "POST /payments"),
+    GET("get", "GET /payments/{id}"),
+    LIST("list", "GET /payments/user/{userId}"),
+    REFUND("refund", "POST /payments/{id}/refund"),
+    LOGIN("login", "POST /auth/login");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "', expected create, get, list, refund or login");
+    }
+}
@@ -0,0 +1,230 @@
+package com.harshdeep.payment.archive;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Column-wise encoding of one archive block.
+ *
+ * <p>Each field is written as its own column for all rows of the block, then the whole block
+ * is deflated. Rows are in (createdAt, id) order, so IDs and timestamps are stored as small
+ * zig-zag varint deltas; currency, payment method and remarks repeat heavily and are
+ * dictionary-coded per block. The status is its enum ordinal, like the journal.
+ */
+final class ArchiveBlockCodec {
+
+    private ArchiveBlockCodec() {
+    }
+
+    static byte[] encode(List<Payment> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 32);
+        // A Deflater passed in is not ended by the stream; its native memory is freed only by end()
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 8192))) {
+            writeVarLong(out, rows.size());
+
+            long previous = 0;
+            for (Payment row : rows) {
+                writeVarLong(out, zigZag(row.getId() - previous));
+                previous = row.getId();
+            }
+            previous = 0;
+            for (Payment row : rows) {
+                writeVarLong(out, zigZag(row.getUserId() - previous));
+                previous = row.getUserId();
+            }
+            for (Payment row : rows) {
+                writeVarLong(out, zigZag(row.getAmountMinor()));
+            }
+            previous = 0;
+            for (Payment row : rows) {
+                long seconds = row.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+                writeVarLong(out, zigZag(seconds - previous));
+                previous = seconds;
+            }
+            for (Payment row : rows) {
+                writeVarLong(out, row.getCreatedAt().getNano());
+            }
+            for (Payment row : rows) {
+                writeVarLong(out, row.getVersion() == null ? 0 : row.getVersion());
+            }
+            for (Payment row : rows) {
+                out.writeByte(row.getStatus().ordinal());
+            }
+            writeDictionary(out, rows, Payment::getCurrency);
+            writeDictionary(out, rows, Payment::getPaymentMethod);
+            writeDictionary(out, rows, Payment::getRemarks);
+            for (Payment row : rows) {
+                writeNullableString(out, row.getTransactionId());
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    static Payment[] decode(byte[] compressed) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(compressed)));
+        int count = (int) readVarLong(in);
+        Payment[] rows = new Payment[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Payment();
+        }
+
+        long previous = 0;
+        for (Payment row : rows) {
+            previous += unZigZag(readVarLong(in));
+            row.setId(previous);
+        }
+        previous = 0;
+        for (Payment row : rows) {
+            previous += unZigZag(readVarLong(in));
+            row.setUserId(previous);
+        }
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = unZigZag(readVarLong(in));
+        }
+        long[] seconds = new long[count];
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong(in));
+            seconds[i] = previous;
+        }
+        for (int i = 0; i < count; i++) {
+            rows[i].setCreatedAt(LocalDateTime.ofEpochSecond(seconds[i], (int) readVarLong(in), ZoneOffset.UTC));
+        }
+        for (Payment row : rows) {
+            row.setVersion(readVarLong(in));
+        }
+        PaymentStatus[] statuses = PaymentStatus.values();
+        for (Payment row : rows) {
+            row.setStatus(statuses[in.readUnsignedByte()]);
+        }
+        String[] currencies = readDictionary(in, count);
+        String[] methods = readDictionary(in, count);
+        String[] remarks = readDictionary(in, count);
+        for (int i = 0; i < count; i++) {
+            Payment row = rows[i];
+            // Currency first: it fixes the scale the minor units are interpreted in
+            row.setCurrency(currencies[i]);
+            row.setAmountMinor(amounts[i]);
+            row.setPaymentMethod(methods[i]);
+            row.setRemarks(remarks[i]);
+            row.setTransactionId(readNullableString(in));
+        }
+        return rows;
+    }
+
+    private static void writeDictionary(DataOutputStream out, List<Payment> rows,
+                                        Function<Payment, String> column) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] indexes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            String value = column.apply(rows.get(i));
+            if (value == null) {
+                continue; // code 0 is null
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                entries.add(value);
+                code = entries.size();
+                codes.put(value, code);
+            }
+            indexes[i] = code;
+        }
+        writeVarLong(out, entries.size());
+        for (String entry : entries) {
+            out.writeUTF(entry);
+        }
+        for (int index : indexes) {
+            writeVarLong(out, index);
+        }
+    }
+
+    private static String[] readDictionary(DataInputStream in, int count) throws IOException {
+        String[] entries = new String[(int) readVarLong(in) + 1];
+        for (int i = 1; i < entries.length; i++) {
+            entries[i] = in.readUTF();
+        }
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = entries[(int) readVarLong(in)];
+        }
+        return values;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException("Truncated archive block");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in archive block");
+    }
+}
@@ -0,0 +1,336 @@
+package com.harshdeep.payment.archive;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * One immutable archive file: compressed column blocks followed by a footer.
+ *
+ * <p>Layout: {@code [magic][block]...[footer][long footerOffset][magic]}. Rows are sorted by
+ * (createdAt, id) and cut into blocks of a fixed row count. The footer is the sparse index,
+ * one entry per block, held in memory while the segment is open: the first and last
+ * (createdAt, id) key for range scans, the min and max ID for lookups, and a Bloom filter of
+ * the block's user IDs, since users are interleaved and a min/max range would match almost
+ * every block. It also carries per-user totals so summaries can be rebuilt without reading
+ * any block.
+ */
+final class ArchiveSegment implements Closeable {
+
+    private static final byte[] MAGIC = "PAYARC01".getBytes(StandardCharsets.US_ASCII);
+
+    record Block(long offset, int length, int rows,
+                 LocalDateTime firstCreatedAt, long firstId,
+                 LocalDateTime lastCreatedAt, long lastId,
+                 long minId, long maxId, BloomFilter users) {
+    }
+
+    private final long number;
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Block> blocks;
+    private final List<ArchiveTotals> totals;
+    private final long rows;
+
+    private ArchiveSegment(long number, Path path, FileChannel channel,
+                           List<Block> blocks, List<ArchiveTotals> totals) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.blocks = blocks;
+        this.totals = totals;
+        this.rows = blocks.stream().mapToLong(Block::rows).sum();
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    List<ArchiveTotals> totals() {
+        return totals;
+    }
+
+    LocalDateTime lastCreatedAt() {
+        return blocks.isEmpty() ? null : blocks.get(blocks.size() - 1).lastCreatedAt();
+    }
+
+    /**
+     * Writes rows, already sorted by (createdAt, id), to a temporary file, syncs it and
+     * renames it into place, so a crash never leaves a partial segment under the final name.
+     */
+    static ArchiveSegment write(long number, Path target, List<Payment> sorted, int blockRows) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        List<Block> blocks = new ArrayList<>();
+        Map<TotalsKey, long[]> totals = new LinkedHashMap<>();
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.wrap(MAGIC));
+            for (int from = 0; from < sorted.size(); from += blockRows) {
+                List<Payment> rows = sorted.subList(from, Math.min(from + blockRows, sorted.size()));
+                byte[] encoded = ArchiveBlockCodec.encode(rows);
+                long offset = out.position();
+                writeFully(out, ByteBuffer.wrap(encoded));
+                blocks.add(describe(offset, encoded.length, rows));
+                for (Payment row : rows) {
+                    long[] sum = totals.computeIfAbsent(
+                            new TotalsKey(row.getUserId(), row.getStatus(), row.getCurrency()), k -> new long[2]);
+                    sum[0]++;
+                    sum[1] += row.getAmountMinor();
+                }
+            }
+            long footerOffset = out.position();
+            writeFully(out, ByteBuffer.wrap(encodeFooter(blocks, totals)));
+            ByteBuffer trailer = ByteBuffer.allocate(8 + MAGIC.length);
+            trailer.putLong(footerOffset).put(MAGIC).flip();
+            writeFully(out, trailer);
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return open(number, target);
+    }
+
+    static ArchiveSegment open(long number, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer trailer = readFully(channel, size - 8 - MAGIC.length, 8 + MAGIC.length);
+            long footerOffset = trailer.getLong();
+            byte[] magic = new byte[MAGIC.length];
+            trailer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            int footerLength = (int) (size - 8 - MAGIC.length - footerOffset);
+            ByteBuffer footer = readFully(channel, footerOffset, footerLength);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                    footer.array(), footer.arrayOffset(), footer.remaining()));
+
+            int blockCount = in.readInt();
+            List<Block> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                int rows = in.readInt();
+                LocalDateTime firstCreatedAt = readTime(in);
+                long firstId = in.readLong();
+                LocalDateTime lastCreatedAt = readTime(in);
+                long lastId = in.readLong();
+                long minId = in.readLong();
+                long maxId = in.readLong();
+                long[] words = new long[in.readInt()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readLong();
+                }
+                blocks.add(new Block(offset, length, rows, firstCreatedAt, firstId,
+                        lastCreatedAt, lastId, minId, maxId, new BloomFilter(words)));
+            }
+            int totalsCount = in.readInt();
+            PaymentStatus[] statuses = PaymentStatus.values();
+            List<ArchiveTotals> totals = new ArrayList<>(totalsCount);
+            for (int i = 0; i < totalsCount; i++) {
+                long userId = in.readLong();
+                PaymentStatus status = statuses[in.readUnsignedByte()];
+                String currency = in.readBoolean() ? in.readUTF() : null;
+                totals.add(new ArchiveTotals(userId, status, currency, in.readLong(), in.readLong()));
+            }
+            return new ArchiveSegment(number, path, channel, blocks, totals);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up a payment by ID, decoding only blocks whose ID range covers it.
+     */
+    Optional<Payment> find(long id) throws IOException {
+        for (Block block : blocks) {
+            if (id < block.minId() || id > block.maxId()) {
+                continue;
+            }
+            for (Payment row : read(block)) {
+                if (row.getId() == id) {
+                    return Optional.of(row);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Adds up to {@code limit} rows after the given key, in (createdAt, id) order, optionally
+     * restricted to one user. Blocks entirely before the key or without the user are skipped.
+     */
+    void collect(Long userId, LocalDateTime afterCreatedAt, Long afterId, int limit,
+                 List<Payment> out) throws IOException {
+        int found = 0;
+        for (Block block : blocks) {
+            if (afterCreatedAt != null
+                    && compare(block.lastCreatedAt(), block.lastId(), afterCreatedAt, afterId) <= 0) {
+                continue;
+            }
+            if (userId != null && !block.users().mightContain(userId)) {
+                continue;
+            }
+            for (Payment row : read(block)) {
+                if (userId != null && row.getUserId().longValue() != userId) {
+                    continue;
+                }
+                if (afterCreatedAt != null
+                        && compare(row.getCreatedAt(), row.getId(), afterCreatedAt, afterId) <= 0) {
+                    continue;
+                }
+                out.add(row);
+                if (++found == limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Feeds every row of the blocks that overlap [from, to) to the sink; the caller filters rows.
+     */
+    void scan(LocalDateTime from, LocalDateTime to, Consumer<Payment> sink) throws IOException {
+        for (Block block : blocks) {
+            if (block.lastCreatedAt().isBefore(from) || !block.firstCreatedAt().isBefore(to)) {
+                continue;
+            }
+            for (Payment row : read(block)) {
+                sink.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Feeds every row to the sink, or only one user's rows when {@code userId} is not null.
+     */
+    void forEach(Long userId, Consumer<Payment> sink) throws IOException {
+        for (Block block : blocks) {
+            if (userId != null && !block.users().mightContain(userId)) {
+                continue;
+            }
+            for (Payment row : read(block)) {
+                if (userId == null || row.getUserId().longValue() == userId) {
+                    sink.accept(row);
+                }
+            }
+        }
+    }
+
+    static int compare(LocalDateTime createdAt, long id, LocalDateTime otherCreatedAt, long otherId) {
+        int byTime = createdAt.compareTo(otherCreatedAt);
+        return byTime != 0 ? byTime : Long.compare(id, otherId);
+    }
+
+    private Payment[] read(Block block) throws IOException {
+        ByteBuffer bytes = readFully(channel, block.offset(), block.length());
+        return ArchiveBlockCodec.decode(bytes.array());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static Block describe(long offset, int length, List<Payment> rows) {
+        Payment first = rows.get(0);
+        Payment last = rows.get(rows.size() - 1);
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        Set<Long> userIds = new HashSet<>();
+        for (Payment row : rows) {
+            minId = Math.min(minId, row.getId());
+            maxId = Math.max(maxId, row.getId());
+            userIds.add(row.getUserId());
+        }
+        BloomFilter users = BloomFilter.forKeys(userIds.size());
+        userIds.forEach(users::add);
+        return new Block(offset, length, rows.size(), first.getCreatedAt(), first.getId(),
+                last.getCreatedAt(), last.getId(), minId, maxId, users);
+    }
+
+    private static byte[] encodeFooter(List<Block> blocks, Map<TotalsKey, long[]> totals) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(blocks.size());
+        for (Block block : blocks) {
+            out.writeLong(block.offset());
+            out.writeInt(block.length());
+            out.writeInt(block.rows());
+            writeTime(out, block.firstCreatedAt());
+            out.writeLong(block.firstId());
+            writeTime(out, block.lastCreatedAt());
+            out.writeLong(block.lastId());
+            out.writeLong(block.minId());
+            out.writeLong(block.maxId());
+            long[] words = block.users().words();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+        out.writeInt(totals.size());
+        for (Map.Entry<TotalsKey, long[]> entry : totals.entrySet()) {
+            TotalsKey key = entry.getKey();
+            out.writeLong(key.userId());
+            out.writeByte(key.status().ordinal());
+            out.writeBoolean(key.currency() != null);
+            if (key.currency() != null) {
+                out.writeUTF(key.currency());
+            }
+            out.writeLong(entry.getValue()[0]);
+            out.writeLong(entry.getValue()[1]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Archive segment truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private record TotalsKey(long userId, PaymentStatus status, String currency) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.harshdeep.payment.archive;
+
+import com.harshdeep.payment.entity.PaymentStatus;
+
+/**
+ * Count and amount (in minor units) of archived payments for one user, status and currency.
+ */
+public record ArchiveTotals(long userId, PaymentStatus status, String currency, long count, long totalMinor) {
+}
@@ -0,0 +1,54 @@
+package com.harshdeep.payment.archive;
+
+/**
+ * Fixed-size Bloom filter over long keys, used as the per-block user index of an archive
+ * segment. Sized at about 8 bits per key with 3 probes, which keeps false positives near 3%.
+ */
+final class BloomFilter {
+
+    private static final int PROBES = 3;
+
+    private final long[] words;
+
+    BloomFilter(long[] words) {
+        this.words = words;
+    }
+
+    static BloomFilter forKeys(int expectedKeys) {
+        int bits = Integer.highestOneBit(Math.max(64, expectedKeys * 8 - 1) << 1);
+        return new BloomFilter(new long[bits / 64]);
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    void add(long key) {
+        long hash = mix(key);
+        int bits = words.length * 64;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) ((hash + i * (hash >>> 32)) & (bits - 1));
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long key) {
+        long hash = mix(key);
+        int bits = words.length * 64;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) ((hash + i * (hash >>> 32)) & (bits - 1));
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // SplitMix64 finalizer; user IDs are small sequential numbers and need spreading
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
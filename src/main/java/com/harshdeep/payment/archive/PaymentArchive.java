@@ -0,0 +1,210 @@
+package com.harshdeep.payment.archive;
+
+import com.harshdeep.payment.dto.PaymentCursor;
+import com.harshdeep.payment.entity.Payment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the cold tier: the set of archive segments on local disk.
+ *
+ * <p>Archived payments are immutable, so segments are only ever added. Lookups check the
+ * newest segment first, so if a payment was ever archived twice the latest copy wins.
+ */
+@Component
+public class PaymentArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentArchive.class);
+    private static final String SEGMENT_PREFIX = "archive-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final Comparator<Payment> KEY_ORDER =
+            Comparator.comparing(Payment::getCreatedAt).thenComparing(Payment::getId);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int blockRows;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextNumber = new AtomicLong();
+
+    public PaymentArchive(MeterRegistry meterRegistry,
+                          @Value("${payment.archive.enabled:true}") boolean enabled,
+                          @Value("${payment.archive.directory:./data/archive}") Path directory,
+                          @Value("${payment.archive.block-rows:1024}") int blockRows) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.blockRows = blockRows;
+        Gauge.builder("payment.archive.segments", segments, List::size)
+                .description("Archive segment files open for reads")
+                .register(meterRegistry);
+        Gauge.builder("payment.archive.payments", segments,
+                        list -> list.stream().mapToLong(ArchiveSegment::rows).sum())
+                .description("Payments held in the archive")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Left by a crash before the rename; the rows are still in the journal
+                    Files.delete(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long number = Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.add(ArchiveSegment.open(number, file));
+                    nextNumber.set(number + 1);
+                }
+            }
+        }
+        log.info("Opened {} archive segment(s) in {}", segments.size(), directory);
+    }
+
+    public Optional<Payment> find(long id) {
+        try {
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                Optional<Payment> found = segments.get(i).find(id);
+                if (found.isPresent()) {
+                    return found;
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read payment " + id + " from the archive", e);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} archived payments after the cursor in (createdAt, id) order,
+     * optionally for a single user.
+     */
+    public List<Payment> page(Long userId, PaymentCursor after, int limit) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        List<Payment> rows = new ArrayList<>();
+        try {
+            // Segments can overlap in time, so take a full page from each and merge
+            for (ArchiveSegment segment : segments) {
+                segment.collect(userId, after == null ? null : after.createdAt(),
+                        after == null ? null : after.id(), limit, rows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read payments from the archive", e);
+        }
+        rows.sort(KEY_ORDER);
+        return rows.size() <= limit ? rows : new ArrayList<>(rows.subList(0, limit));
+    }
+
+    /**
+     * Visits archived payments whose block overlaps [from, to), one block in memory at a time.
+     * Rows outside the range are included, so the caller must filter.
+     */
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<Payment> sink) {
+        try {
+            for (ArchiveSegment segment : segments) {
+                segment.scan(from, to, sink);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read payments from the archive", e);
+        }
+    }
+
+    /**
+     * Visits every archived payment, or a single user's when {@code userId} is not null, one
+     * block in memory at a time.
+     */
+    public void forEach(Long userId, Consumer<Payment> sink) {
+        try {
+            for (ArchiveSegment segment : segments) {
+                segment.forEach(userId, sink);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read payments from the archive", e);
+        }
+    }
+
+    /**
+     * Latest creation time of any archived payment, or null while the archive is empty.
+     */
+    public LocalDateTime horizon() {
+        LocalDateTime horizon = null;
+        for (ArchiveSegment segment : segments) {
+            LocalDateTime last = segment.lastCreatedAt();
+            if (last != null && (horizon == null || last.isAfter(horizon))) {
+                horizon = last;
+            }
+        }
+        return horizon;
+    }
+
+    public List<ArchiveTotals> totals() {
+        List<ArchiveTotals> totals = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            totals.addAll(segment.totals());
+        }
+        return totals;
+    }
+
+    /**
+     * Writes a new segment to disk; it is not read from until {@link #publish} is called.
+     */
+    ArchiveSegment write(List<Payment> sorted) throws IOException {
+        long number = nextNumber.getAndIncrement();
+        String name = SEGMENT_PREFIX + String.format("%016d", number) + SEGMENT_SUFFIX;
+        return ArchiveSegment.write(number, directory.resolve(name), sorted, blockRows);
+    }
+
+    void publish(ArchiveSegment segment) {
+        segments.add(segment);
+    }
+
+    /**
+     * Deletes a segment whose rows could not be taken out of the hot table.
+     */
+    void discard(ArchiveSegment segment) {
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+            log.warn("Could not delete discarded archive segment {}", segment.path(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (ArchiveSegment segment : segments) {
+            segment.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.harshdeep.payment.archive;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.journal.PaymentJournal;
+import com.harshdeep.payment.repository.PaymentRepository;
+import com.harshdeep.payment.service.PaymentCache;
+import com.harshdeep.payment.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically moves payments older than {@code payment.archive.max-age} out of the payment
+ * table into archive segments.
+ *
+ * <p>Each run goes through the shards one at a time, in chunks of {@code rows-per-segment}. A chunk is locked, written to a
+ * new segment, deleted from the table and recorded in the journal, all in one transaction,
+ * so a refund racing the archiver either lands before the rows are read or finds the payment
+ * archived. The segment becomes readable right after the commit. Payments still waiting for settlement are left
+ * in the table.
+ *
+ * <p>Archived payments are read-only, so {@code max-age} must be longer than
+ * {@code payment.refund.window}: a payment stays in the table for as long as it can be refunded.
+ */
+@Component
+public class PaymentArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentArchiver.class);
+    private static final int DELETE_CHUNK = 1000;
+
+    private final PaymentRepository repository;
+    private final PaymentArchive archive;
+    private final PaymentJournal journal;
+    private final PaymentCache cache;
+    private final EntityManager entityManager;
+    private final ShardRouter router;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxAge;
+    private final int rowsPerSegment;
+    private final Counter archived;
+
+    public PaymentArchiver(PaymentRepository repository,
+                           PaymentArchive archive,
+                           PaymentJournal journal,
+                           PaymentCache cache,
+                           EntityManager entityManager,
+                           ShardRouter router,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${payment.archive.max-age:P30D}") Duration maxAge,
+                           @Value("${payment.archive.rows-per-segment:100000}") int rowsPerSegment,
+                           @Value("${payment.refund.window:P14D}") Duration refundWindow) {
+        if (archive.isEnabled() && maxAge.compareTo(refundWindow) <= 0) {
+            throw new IllegalArgumentException("payment.archive.max-age (" + maxAge
+                    + ") must be longer than payment.refund.window (" + refundWindow + ")");
+        }
+        this.repository = repository;
+        this.archive = archive;
+        this.journal = journal;
+        this.cache = cache;
+        this.entityManager = entityManager;
+        this.router = router;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAge = maxAge;
+        this.rowsPerSegment = rowsPerSegment;
+        this.archived = Counter.builder("payment.archive.archived")
+                .description("Payments moved from the table to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.archive.interval:PT1H}",
+            initialDelayString = "${payment.archive.initial-delay:PT1M}")
+    public void archiveOldPayments() {
+        if (!archive.isEnabled()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        long start = System.nanoTime();
+        long total = 0;
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            int moved;
+            do {
+                moved = router.onShard(shard, () -> archiveChunk(cutoff));
+                total += moved;
+            } while (moved == rowsPerSegment);
+        }
+
+        if (total > 0) {
+            log.info("Archived {} payment(s) created before {} in {} ms",
+                    total, cutoff, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Payment> rows = repository.findArchivable(cutoff, PaymentStatus.INITIATED,
+                    PageRequest.ofSize(rowsPerSegment));
+            if (rows.isEmpty()) {
+                return List.of();
+            }
+            ArchiveSegment segment;
+            try {
+                segment = archive.write(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive segment", e);
+            }
+            // Readable only once the rows are gone from the table, so no reader sees them twice
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int outcome) {
+                    if (outcome == STATUS_COMMITTED) {
+                        archive.publish(segment);
+                    } else {
+                        archive.discard(segment);
+                    }
+                }
+            });
+            List<Long> rowIds = rows.stream().map(Payment::getId).toList();
+            // Row locks stay until commit; without this every bulk delete would dirty-check the whole chunk
+            entityManager.clear();
+            for (int from = 0; from < rowIds.size(); from += DELETE_CHUNK) {
+                repository.deleteAllByIdInBatch(rowIds.subList(from, Math.min(from + DELETE_CHUNK, rowIds.size())));
+            }
+            journal.appendArchived(rowIds.stream().mapToLong(Long::longValue).toArray());
+            log.info("Archived {} payment(s) to {}", rows.size(), segment.path().getFileName());
+            return rowIds;
+        });
+        ids.forEach(cache::invalidate);
+        archived.increment(ids.size());
+        return ids.size();
+    }
+}
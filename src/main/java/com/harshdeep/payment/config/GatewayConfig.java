@@ -0,0 +1,10 @@
+package com.harshdeep.payment.config;
+
+import com.harshdeep.payment.gateway.GatewayProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GatewayProperties.class)
+public class GatewayConfig {
+}
@@ -3,41 +3,59 @@ package com.harshdeep.payment.controller;
 import com.harshdeep.payment.entity.User;
 import com.harshdeep.payment.repository.UserRepository;
 import com.harshdeep.payment.security.JwtUtil;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.harshdeep.payment.security.PasswordHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
-    private final BCryptPasswordEncoder encoder;
+    private final PasswordHasher passwordHasher;
 
     public AuthController(UserRepository userRepository,
                           JwtUtil jwtUtil,
-                          BCryptPasswordEncoder encoder) {
+                          PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
-        this.encoder = encoder;
+        this.passwordHasher = passwordHasher;
     }
 
     @PostMapping("/register")
-    public User register(@RequestBody User user) {
+    public CompletableFuture<User> register(@RequestBody User user) {
         // Encrypt password using BCrypt before saving
-        user.setPassword(encoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        return passwordHasher.encode(user.getPassword())
+                .thenApply(hash -> {
+                    user.setPassword(hash);
+                    return userRepository.save(user);
+                });
     }
 
     @PostMapping("/login")
-    public String login(@RequestBody User user) {
+    public CompletableFuture<String> login(@RequestBody User user) {
         User dbUser = userRepository.findByUsername(user.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!encoder.matches(user.getPassword(), dbUser.getPassword())) {
-            throw new RuntimeException("Invalid credentials");
-        }
-
-        return jwtUtil.generateToken(user.getUsername());
+        return passwordHasher.verify(user.getPassword(), dbUser.getPassword())
+                .thenApply(verification -> {
+                    if (!verification.matched()) {
+                        throw new RuntimeException("Invalid credentials");
+                    }
+                    if (verification.upgradedHash() != null) {
+                        // BCrypt strength changed since this hash was made
+                        dbUser.setPassword(verification.upgradedHash());
+                        userRepository.save(dbUser);
+                        log.info("Rehashed password for user {} with the current BCrypt strength",
+                                dbUser.getUsername());
+                    }
+                    return jwtUtil.generateToken(user.getUsername());
+                });
     }
 }
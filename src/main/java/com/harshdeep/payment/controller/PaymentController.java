@@ -1,58 +1,215 @@
 package com.harshdeep.payment.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.harshdeep.payment.dto.BatchPaymentResponse;
+import com.harshdeep.payment.dto.ImportSummary;
+import com.harshdeep.payment.dto.PaymentExportFilter;
+import com.harshdeep.payment.dto.PaymentPage;
+import com.harshdeep.payment.dto.PaymentSummary;
 import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.idempotency.IdempotencyStore;
+import com.harshdeep.payment.service.PaymentExporter;
+import com.harshdeep.payment.service.PaymentImporter;
 import com.harshdeep.payment.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.security.Principal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final PaymentService service;
+    private final PaymentImporter importer;
+    private final PaymentExporter exporter;
+    private final IdempotencyStore idempotency;
+    private final ObjectWriter ndjsonWriter;
 
-    public PaymentController(PaymentService service) {
+    public PaymentController(PaymentService service, PaymentImporter importer, PaymentExporter exporter,
+                             IdempotencyStore idempotency, ObjectMapper objectMapper) {
         this.service = service;
+        this.importer = importer;
+        this.exporter = exporter;
+        this.idempotency = idempotency;
+        this.ndjsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
+    // Returns a future so the request thread isn't held while the gateway answers
     @PostMapping
-    public ResponseEntity<Payment> createPayment(@RequestBody Payment payment) {
-        log.info("POST /payments - Creating new payment");
-        Payment createdPayment = service.createPayment(payment);
-        return new ResponseEntity<>(createdPayment, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<Payment>> createPayment(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            Principal principal,
+            @RequestBody Payment payment) {
+        log.debug("POST /payments - Creating new payment");
+        if (idempotencyKey == null) {
+            return create(payment);
+        }
+        // A retry must describe the same payment; the amount is compared in minor units
+        String fingerprint = payment.getUserId() + "|" + payment.getAmountMinor() + "|"
+                + payment.getCurrency() + "|" + payment.getPaymentMethod();
+        return idempotency.execute(IdempotencyStore.scope(principal.getName(), "POST /payments", idempotencyKey),
+                fingerprint, () -> create(payment));
+    }
+
+    private CompletableFuture<ResponseEntity<Payment>> create(Payment payment) {
+        if (service.isAsyncProcessing()) {
+            Payment accepted = service.submitPayment(payment);
+            return CompletableFuture.completedFuture(ResponseEntity.accepted()
+                    .location(URI.create("/payments/" + accepted.getId()))
+                    .body(accepted));
+        }
+        return service.createPaymentAsync(payment)
+                .thenApply(createdPayment -> new ResponseEntity<>(createdPayment, HttpStatus.CREATED));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPaymentResponse> createPayments(@RequestBody List<Payment> payments) {
+        log.debug("POST /payments/batch - Creating {} payment(s)", payments.size());
+        BatchPaymentResponse response = service.createPayments(payments);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Streams a CSV (with a header row) or NDJSON file of historical payments into the database.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON})
+    public ResponseEntity<ImportSummary> importPayments(@RequestHeader("Content-Type") MediaType contentType,
+                                                        InputStream body) throws IOException {
+        log.debug("POST /payments/import - Importing payments ({})", contentType);
+        PaymentImporter.Format format = contentType.isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                ? PaymentImporter.Format.NDJSON
+                : PaymentImporter.Format.CSV;
+        return ResponseEntity.ok(importer.importPayments(body, format));
     }
 
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        log.info("GET /payments - Fetching all payments");
-        List<Payment> payments = service.getAllPayments();
+    public ResponseEntity<PaymentPage> getAllPayments(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
+        log.debug("GET /payments - Fetching payments page");
+        PaymentPage payments = service.getAllPayments(cursor, limit);
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        log.debug("GET /payments/stream - Streaming all payments");
+        StreamingResponseBody body = out -> service.streamAllPayments(ndjsonSink(out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Settlement file for a createdAt range as CSV, optionally gzipped, with per-currency totals at the end.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam String from,
+                                                                @RequestParam String to,
+                                                                @RequestParam(required = false) String status,
+                                                                @RequestParam(required = false) String currency,
+                                                                @RequestParam(defaultValue = "true") boolean totals,
+                                                                @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("GET /payments/export - Exporting payments from {} to {}", from, to);
+        // Parsed up front so bad parameters are a 400 rather than a broken download
+        PaymentExportFilter filter = PaymentExportFilter.parse(from, to, status, currency);
+        String filename = "payments-" + from + "-" + to + (gzip ? ".csv.gz" : ".csv");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                exporter.export(filter, totals, compressed);
+                compressed.finish();
+            } else {
+                exporter.export(filter, totals, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Payment> getPayment(@PathVariable Long id) {
-        log.info("GET /payments/{} - Fetching payment", id);
+        log.debug("GET /payments/{} - Fetching payment", id);
         Payment payment = service.getPayment(id);
         return ResponseEntity.ok(payment);
     }
 
+    @GetMapping("/transaction/{transactionId}")
+    public ResponseEntity<Payment> getPaymentByTransaction(@PathVariable String transactionId) {
+        log.debug("GET /payments/transaction/{} - Fetching payment", transactionId);
+        Payment payment = service.getPaymentByTransactionId(transactionId);
+        return ResponseEntity.ok(payment);
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Payment>> getPaymentsByUser(@PathVariable Long userId) {
-        log.info("GET /payments/user/{} - Fetching payments for user", userId);
-        List<Payment> payments = service.getPaymentsByUserId(userId);
+    public ResponseEntity<PaymentPage> getPaymentsByUser(@PathVariable Long userId,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        log.debug("GET /payments/user/{} - Fetching payments for user", userId);
+        PaymentPage payments = service.getPaymentsByUserId(userId, cursor, limit);
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<PaymentSummary> getSummaryByUser(@PathVariable Long userId) {
+        log.debug("GET /payments/user/{}/summary - Fetching payment summary", userId);
+        PaymentSummary summary = service.getSummary(userId);
+        return ResponseEntity.ok(summary);
+    }
+
+    @GetMapping(value = "/user/{userId}/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamPaymentsByUser(@PathVariable Long userId) {
+        log.debug("GET /payments/user/{}/stream - Streaming payments for user", userId);
+        StreamingResponseBody body = out -> service.streamPaymentsByUserId(userId, ndjsonSink(out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @PostMapping("/{id}/refund")
-    public ResponseEntity<Payment> refund(@PathVariable Long id) {
-        log.info("POST /payments/{}/refund - Processing refund", id);
-        Payment refundedPayment = service.refund(id);
-        return ResponseEntity.ok(refundedPayment);
+    public CompletableFuture<ResponseEntity<Payment>> refund(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            Principal principal) {
+        log.debug("POST /payments/{}/refund - Processing refund", id);
+        if (idempotencyKey == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(service.refund(id)));
+        }
+        return idempotency.execute(
+                IdempotencyStore.scope(principal.getName(), "POST /payments/" + id + "/refund", idempotencyKey),
+                String.valueOf(id), () -> CompletableFuture.completedFuture(ResponseEntity.ok(service.refund(id))));
+    }
+
+    // Writes one JSON document per line without closing the response stream
+    private Consumer<Payment> ndjsonSink(OutputStream out) {
+        return payment -> {
+            try {
+                ndjsonWriter.writeValue(out, payment);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
     }
 }
@@ -0,0 +1,23 @@
+package com.harshdeep.payment.dto;
+
+import com.harshdeep.payment.entity.Payment;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private boolean accepted;
+    private Payment payment;
+    private String error;
+
+    public static BatchItemResult accepted(int index, Payment payment) {
+        return new BatchItemResult(index, true, payment, null);
+    }
+
+    public static BatchItemResult rejected(int index, String error) {
+        return new BatchItemResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,18 @@
+package com.harshdeep.payment.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchPaymentResponse {
+    private int submitted;
+    private int accepted;
+    private int rejected;
+    private long elapsedMillis;
+    private double paymentsPerSecond;
+    private List<BatchItemResult> results;
+}
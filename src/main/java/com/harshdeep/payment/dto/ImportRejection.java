@@ -0,0 +1,13 @@
+package com.harshdeep.payment.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRejection {
+    // 1-based line in the uploaded file (the CSV header is line 1)
+    private long line;
+    private String error;
+}
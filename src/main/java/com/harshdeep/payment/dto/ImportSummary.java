@@ -0,0 +1,20 @@
+package com.harshdeep.payment.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportSummary {
+    private long rows;
+    private long accepted;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    // Capped at payment.import.max-reported-errors; rejected still counts every row
+    private List<ImportRejection> rejections;
+    private boolean rejectionsTruncated;
+}
@@ -0,0 +1,54 @@
+package com.harshdeep.payment.dto;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Rows selected by an export: createdAt in [from, to), optionally one status and currency.
+ */
+public record PaymentExportFilter(LocalDateTime from, LocalDateTime to, PaymentStatus status, String currency) {
+
+    /**
+     * Parses request parameters; {@code from} and {@code to} are ISO dates (midnight) or date-times.
+     */
+    public static PaymentExportFilter parse(String from, String to, String status, String currency) {
+        LocalDateTime start = parseBound(from, "from");
+        LocalDateTime end = parseBound(to, "to");
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        PaymentStatus parsedStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                parsedStatus = PaymentStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status: " + status);
+            }
+        }
+        String parsedCurrency = currency == null || currency.isBlank() ? null : currency.trim().toUpperCase(Locale.ROOT);
+        return new PaymentExportFilter(start, end, parsedStatus, parsedCurrency);
+    }
+
+    public boolean matches(Payment payment) {
+        LocalDateTime createdAt = payment.getCreatedAt();
+        return !createdAt.isBefore(from) && createdAt.isBefore(to)
+                && (status == null || status == payment.getStatus())
+                && (currency == null || currency.equals(payment.getCurrency()));
+    }
+
+    private static LocalDateTime parseBound(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date or date-time: " + value);
+        }
+    }
+}
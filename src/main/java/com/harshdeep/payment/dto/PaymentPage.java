@@ -0,0 +1,17 @@
+package com.harshdeep.payment.dto;
+
+import com.harshdeep.payment.entity.Payment;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentPage {
+    private List<Payment> items;
+    private int limit;
+    // Null when there are no more rows after this page
+    private String nextCursor;
+}
@@ -0,0 +1,14 @@
+package com.harshdeep.payment.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentSummary {
+    private Long userId;
+    private List<SummaryBucket> buckets;
+}
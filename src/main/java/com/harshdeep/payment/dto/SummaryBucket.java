@@ -0,0 +1,17 @@
+package com.harshdeep.payment.dto;
+
+import com.harshdeep.payment.entity.PaymentStatus;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SummaryBucket {
+    private PaymentStatus status;
+    private String currency;
+    private long count;
+    private BigDecimal totalAmount;
+}
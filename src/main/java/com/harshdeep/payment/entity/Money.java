@@ -0,0 +1,63 @@
+package com.harshdeep.payment.entity;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Conversions between decimal amounts and minor units (cents, pence, ...) of a currency.
+ *
+ * <p>Payments keep amounts as a {@code long} so comparisons and totals are exact and
+ * allocation-free; {@link BigDecimal} is only used at the JSON boundary. Currencies the
+ * JDK doesn't know are treated as having two decimal places.
+ */
+public final class Money {
+
+    private static final int DEFAULT_SCALE = 2;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    private static final Map<String, Integer> SCALES = Currency.getAvailableCurrencies().stream()
+            .filter(c -> c.getDefaultFractionDigits() >= 0 && c.getDefaultFractionDigits() < POWERS_OF_TEN.length)
+            .collect(Collectors.toUnmodifiableMap(Currency::getCurrencyCode,
+                    Currency::getDefaultFractionDigits, (a, b) -> a));
+
+    private Money() {
+    }
+
+    /**
+     * Whether {@code currency} is an ISO 4217 code with a known number of decimal places.
+     */
+    public static boolean isSupported(String currency) {
+        return currency != null && SCALES.containsKey(currency);
+    }
+
+    public static int scale(String currency) {
+        Integer scale = currency == null ? null : SCALES.get(currency);
+        return scale == null ? DEFAULT_SCALE : scale;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has more decimal places than the
+     *                                  currency allows or does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        try {
+            return amount.movePointRight(scale(currency)).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                    + " is not a valid " + (currency == null ? "amount" : currency + " amount"));
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits, String currency) {
+        return BigDecimal.valueOf(minorUnits, scale(currency));
+    }
+
+    /**
+     * Converts a whole number of major units (e.g. a limit of 100000 USD) to minor units.
+     */
+    public static long majorToMinor(long majorUnits, String currency) {
+        return Math.multiplyExact(majorUnits, POWERS_OF_TEN[scale(currency)]);
+    }
+}
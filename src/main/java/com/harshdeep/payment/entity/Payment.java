@@ -1,28 +1,47 @@
 package com.harshdeep.payment.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_payment_user_created", columnList = "userId, createdAt"),
+        @Index(name = "idx_payment_created", columnList = "createdAt"),
+        @Index(name = "uk_payment_transaction_id", columnList = "transactionId", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
 
+    // Assigned by PaymentIdGenerator before insert and encodes the shard; new rows are told apart by a null version
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotNull
     private Long userId;
 
-    @NotNull
-    @Positive
-    private Double amount;
+    // Stored in minor units of the currency; JSON carries the decimal "amount" instead
+    @JsonIgnore
+    @Column(name = "amount_minor")
+    private long amountMinor;
 
+    // Decimal amount as received; JSON fields arrive in any order, so it is only converted once the currency is known
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private BigDecimal requestedAmount;
+
+    @Setter(AccessLevel.NONE)
     private String currency;
     
     private String paymentMethod;
@@ -35,4 +54,29 @@ public class Payment {
     private String remarks;
 
     private LocalDateTime createdAt;
+
+    // Optimistic locking for entity writes; the conditional refund bumps it explicitly.
+    // Read-only in JSON: a client-supplied version would make a new payment look like an existing row
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @JsonProperty("amount")
+    public BigDecimal getAmount() {
+        return Money.toDecimal(amountMinor, currency);
+    }
+
+    @JsonProperty("amount")
+    public void setAmount(BigDecimal amount) {
+        this.requestedAmount = amount;
+        this.amountMinor = amount == null || currency == null ? 0 : Money.toMinorUnits(amount, currency);
+    }
+
+    // ISO 4217 codes are uppercase; Money.scale and the per-currency risk limits look them up as such
+    public void setCurrency(String currency) {
+        this.currency = currency == null ? null : currency.toUpperCase(Locale.ROOT);
+        if (requestedAmount != null) {
+            this.amountMinor = this.currency == null ? 0 : Money.toMinorUnits(requestedAmount, this.currency);
+        }
+    }
 }
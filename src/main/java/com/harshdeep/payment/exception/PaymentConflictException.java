@@ -0,0 +1,8 @@
+package com.harshdeep.payment.exception;
+
+public class PaymentConflictException extends RuntimeException {
+
+    public PaymentConflictException(String message) {
+        super(message);
+    }
+}
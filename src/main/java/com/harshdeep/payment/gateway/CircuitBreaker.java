@@ -0,0 +1,74 @@
+package com.harshdeep.payment.gateway;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row calls
+ * are refused for {@code openDuration}; then a single probe call is let through, and its
+ * outcome closes the circuit or opens it again.
+ */
+final class CircuitBreaker {
+
+    static final int CLOSED = 0;
+    static final int OPEN = 1;
+    static final int HALF_OPEN = 2;
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger failures = new AtomicInteger();
+    // System.nanoTime() when the circuit may next be probed; 0 while closed
+    private final AtomicLong openUntil = new AtomicLong();
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("circuit-breaker.failure-threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return true if a call may go ahead; the caller must then report its outcome
+     */
+    boolean tryAcquire() {
+        long until = openUntil.get();
+        if (until == 0) {
+            return true;
+        }
+        if (System.nanoTime() - until < 0) {
+            return false;
+        }
+        return probing.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        failures.set(0);
+        openUntil.set(0);
+        probing.set(false);
+    }
+
+    void onFailure() {
+        if (probing.get() || failures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    int state() {
+        long until = openUntil.get();
+        if (until == 0) {
+            return CLOSED;
+        }
+        return System.nanoTime() - until < 0 ? OPEN : HALF_OPEN;
+    }
+
+    private void open() {
+        // Never 0, which means closed
+        openUntil.set((System.nanoTime() + openNanos) | 1);
+        failures.set(0);
+        probing.set(false);
+    }
+}
@@ -0,0 +1,24 @@
+package com.harshdeep.payment.gateway;
+
+/**
+ * The gateway gave no answer: it timed out, failed, was refused by the circuit breaker or
+ * had too many calls waiting. The payment's outcome at the acquirer is unknown.
+ */
+public class GatewayException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public GatewayException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public GatewayException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryable = true;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,51 @@
+package com.harshdeep.payment.gateway;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection, concurrency and failure-handling settings for {@link HttpPaymentGateway}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "payment.gateway")
+public class GatewayProperties {
+
+    // simulated or http
+    private String type = "simulated";
+
+    private String url = "http://localhost:9090/authorize";
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    // Per attempt, from sending the request until the whole response is read
+    private Duration requestTimeout = Duration.ofSeconds(2);
+
+    // Calls in flight at once; more wait in a queue of maxQueued, beyond that they fail at once
+    private int maxConcurrency = 100;
+    private int maxQueued = 1000;
+
+    // Threads that handle responses and finish the payment (including the database write)
+    private int callbackThreads = 8;
+
+    private Retry retry = new Retry();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Getter
+    @Setter
+    public static class Retry {
+        // Including the first attempt; only timeouts, connection errors and 5xx are retried
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        // Consecutive failed attempts that open the circuit, and how long it stays open
+        private int failureThreshold = 10;
+        private Duration openDuration = Duration.ofSeconds(10);
+    }
+}
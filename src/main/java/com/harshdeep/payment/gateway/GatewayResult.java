@@ -0,0 +1,10 @@
+package com.harshdeep.payment.gateway;
+
+/**
+ * The acquirer's answer to an authorization request.
+ *
+ * @param reference the acquirer's id for the authorization, if it returns one
+ * @param message   why the payment was declined, or a success note
+ */
+public record GatewayResult(boolean approved, String reference, String message) {
+}
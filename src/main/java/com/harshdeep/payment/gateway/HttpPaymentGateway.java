@@ -0,0 +1,262 @@
+package com.harshdeep.payment.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.harshdeep.payment.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authorizes payments over HTTP with the JDK's asynchronous client, which keeps a pool of
+ * persistent connections; no thread waits while a request is in flight.
+ *
+ * <p>Each attempt has its own timeout. At most {@code max-concurrency} calls run at once and
+ * up to {@code max-queued} more wait for a slot without holding a thread; beyond that a call
+ * fails at once. Timeouts, connection errors and 5xx responses are retried with exponential
+ * backoff and full jitter. They and unreadable answers count towards the circuit breaker,
+ * which refuses calls while the acquirer is failing; any 4xx counts as the acquirer being up.
+ * The transaction ID is sent as {@code Idempotency-Key} so a retried
+ * authorization is not charged twice.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "http")
+public class HttpPaymentGateway implements PaymentGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpPaymentGateway.class);
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final GatewayProperties.Retry retry;
+    private final Duration requestTimeout;
+    private final ExecutorService callbacks;
+    private final HttpClient client;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore slots;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxQueued;
+
+    private final Timer approved;
+    private final Timer declined;
+    private final Timer failed;
+    private final Counter retries;
+    private final Counter rejected;
+
+    public HttpPaymentGateway(GatewayProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(properties.getUrl());
+        this.retry = properties.getRetry();
+        if (retry.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("payment.gateway.retry.max-attempts must be at least 1");
+        }
+        this.requestTimeout = properties.getRequestTimeout();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.callbacks = Executors.newFixedThreadPool(properties.getCallbackThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "gateway-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(callbacks)
+                .build();
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker().getFailureThreshold(),
+                properties.getCircuitBreaker().getOpenDuration());
+        this.slots = new Semaphore(properties.getMaxConcurrency());
+        this.maxQueued = properties.getMaxQueued();
+
+        this.approved = latency(meterRegistry, "approved");
+        this.declined = latency(meterRegistry, "declined");
+        this.failed = latency(meterRegistry, "error");
+        this.retries = Counter.builder("payment.gateway.retries")
+                .description("Authorization attempts repeated after a retryable failure")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("payment.gateway.rejected")
+                .description("Authorizations refused locally: circuit open or too many waiting")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.in.flight", slots,
+                        s -> properties.getMaxConcurrency() - s.availablePermits())
+                .description("Authorizations currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.queued", queued, AtomicInteger::get)
+                .description("Authorizations waiting for a free slot")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.circuit.state", circuitBreaker, CircuitBreaker::state)
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        log.info("Payment gateway at {} (max {} concurrent, {} queued)", url, properties.getMaxConcurrency(), maxQueued);
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> authorize(Payment payment) {
+        CompletableFuture<GatewayResult> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        Runnable call = () -> firstAttempt(payment).whenComplete((answer, error) -> {
+            slots.release();
+            drain();
+            record(start, answer, error);
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                result.complete(answer);
+            }
+        });
+
+        if (slots.tryAcquire()) {
+            call.run();
+        } else if (queued.incrementAndGet() <= maxQueued) {
+            waiting.add(call);
+            // A slot may have been released before the call was queued
+            drain();
+        } else {
+            queued.decrementAndGet();
+            rejected.increment();
+            result.completeExceptionally(new GatewayException("too many authorizations waiting", false));
+        }
+        return result;
+    }
+
+    // Queued calls start on the callback pool: a call that fails at once (circuit open) completes
+    // inline and drains again, which run here would recurse once per queued call
+    private void drain() {
+        while (!waiting.isEmpty() && slots.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                slots.release();
+                return;
+            }
+            queued.decrementAndGet();
+            callbacks.execute(next);
+        }
+    }
+
+    private CompletableFuture<GatewayResult> firstAttempt(Payment payment) {
+        try {
+            return attempt(payment, 1);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<GatewayResult> attempt(Payment payment, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new GatewayException("circuit breaker open", false));
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", payment.getTransactionId())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body(payment)))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    try {
+                        GatewayResult answer = answer(response, error);
+                        circuitBreaker.onSuccess();
+                        return CompletableFuture.completedFuture(answer);
+                    } catch (GatewayException e) {
+                        // Every outcome is reported, or a half-open probe would never be released.
+                        // A 4xx is the acquirer answering, so it counts as the gateway being up
+                        if (error == null && response.statusCode() >= 400 && response.statusCode() < 500) {
+                            circuitBreaker.onSuccess();
+                        } else {
+                            circuitBreaker.onFailure();
+                        }
+                        if (!e.isRetryable() || attempt >= retry.getMaxAttempts()) {
+                            return CompletableFuture.<GatewayResult>failedFuture(e);
+                        }
+                        retries.increment();
+                        long delay = backoffMillis(attempt);
+                        log.debug("Retrying authorization of {} in {} ms after: {}",
+                                payment.getTransactionId(), delay, e.getMessage());
+                        return CompletableFuture.supplyAsync(() -> null,
+                                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, callbacks))
+                                .thenCompose(ignored -> attempt(payment, attempt + 1));
+                    }
+                })
+                .thenCompose(next -> next);
+    }
+
+    private GatewayResult answer(HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof HttpTimeoutException) {
+                throw new GatewayException("timed out after " + requestTimeout.toMillis() + " ms", true);
+            }
+            throw new GatewayException("request failed: " + cause, cause);
+        }
+        int status = response.statusCode();
+        if (status >= 500) {
+            throw new GatewayException("gateway returned " + status, true);
+        }
+        if (status != 200) {
+            throw new GatewayException("gateway returned " + status, false);
+        }
+        try {
+            return objectMapper.readValue(response.body(), GatewayResult.class);
+        } catch (IOException e) {
+            throw new GatewayException("unreadable gateway response: " + e.getMessage(), false);
+        }
+    }
+
+    // Full jitter: uniformly random up to the capped exponential backoff
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(retry.getMaxBackoff().toMillis(),
+                retry.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private byte[] body(Payment payment) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("transactionId", payment.getTransactionId());
+        body.put("userId", payment.getUserId());
+        body.put("amount", payment.getAmount());
+        body.put("currency", payment.getCurrency());
+        body.put("paymentMethod", payment.getPaymentMethod());
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void record(long start, GatewayResult answer, Throwable error) {
+        Timer timer = error != null ? failed : answer.approved() ? approved : declined;
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer latency(MeterRegistry registry, String outcome) {
+        return Timer.builder("payment.gateway.latency")
+                .description("Authorization time including queueing and retries")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbacks.shutdown();
+    }
+}
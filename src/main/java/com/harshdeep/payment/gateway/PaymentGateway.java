@@ -0,0 +1,14 @@
+package com.harshdeep.payment.gateway;
+
+import com.harshdeep.payment.entity.Payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Authorizes payments with the acquirer. Calls must not block the caller; the future fails
+ * with {@link GatewayException} when there is no answer.
+ */
+public interface PaymentGateway {
+
+    CompletableFuture<GatewayResult> authorize(Payment payment);
+}
@@ -0,0 +1,39 @@
+package com.harshdeep.payment.gateway;
+
+import com.harshdeep.payment.entity.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in acquirer used unless {@code payment.gateway.type} is {@code http}: answers at once,
+ * approving {@code approval-rate} of payments. {@link ThreadLocalRandom} keeps concurrent
+ * payments from contending on a shared seed.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final GatewayResult APPROVED = new GatewayResult(true, null, "Payment processed successfully");
+    private static final GatewayResult DECLINED =
+            new GatewayResult(false, null, "Payment failed due to insufficient funds or technical error");
+
+    private final double approvalRate;
+
+    public SimulatedPaymentGateway(@Value("${payment.gateway.simulated.approval-rate:0.75}") double approvalRate) {
+        if (approvalRate < 0 || approvalRate > 1) {
+            throw new IllegalArgumentException("payment.gateway.simulated.approval-rate must be between 0 and 1");
+        }
+        this.approvalRate = approvalRate;
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> authorize(Payment payment) {
+        // A future per call: a shared one could be completed or obtruded by any caller
+        boolean approved = ThreadLocalRandom.current().nextDouble() < approvalRate;
+        return CompletableFuture.completedFuture(approved ? APPROVED : DECLINED);
+    }
+}
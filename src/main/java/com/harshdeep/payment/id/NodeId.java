@@ -0,0 +1,26 @@
+package com.harshdeep.payment.id;
+
+/**
+ * Range of {@code payment.node-id}, which keeps IDs from different instances apart.
+ *
+ * <p>Every generator takes the same node ID, so every generator checks it against the
+ * narrowest field it is packed into: the 5 bits of a payment ID.
+ */
+public final class NodeId {
+
+    public static final int BITS = 5;
+    public static final long MAX = (1L << BITS) - 1;
+
+    private NodeId() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code nodeId} is outside 0 to {@link #MAX}
+     */
+    public static long check(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX) {
+            throw new IllegalArgumentException("payment.node-id must be between 0 and " + MAX);
+        }
+        return nodeId;
+    }
+}
@@ -0,0 +1,57 @@
+package com.harshdeep.payment.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Milliseconds since 2024-01-01 and a 12-bit per-millisecond sequence, the time-ordered part
+ * of payment and transaction IDs.
+ *
+ * <p>Both live in one {@link AtomicLong} advanced with a single CAS: when the sequence
+ * overflows it carries into the millisecond, and a clock that moves backwards keeps counting
+ * from the last value, so {@link #next()} never blocks or spins waiting for time to pass and
+ * never returns the same value twice.
+ */
+public final class TimestampSequence {
+
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int SEQUENCE_BITS = 12;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Wall-clock milliseconds since 1970
+    private final LongSupplier clock;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last issued value
+    private final AtomicLong state = new AtomicLong();
+
+    public TimestampSequence() {
+        this(System::currentTimeMillis);
+    }
+
+    TimestampSequence(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code (millis since epoch << SEQUENCE_BITS) | sequence}, greater than any value
+     *         returned before
+     */
+    public long next() {
+        long fresh = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = state.get();
+            next = fresh > prev ? fresh : prev + 1;
+        } while (!state.compareAndSet(prev, next));
+        return next;
+    }
+
+    public static long millis(long value) {
+        return value >>> SEQUENCE_BITS;
+    }
+
+    public static long sequence(long value) {
+        return value & SEQUENCE_MASK;
+    }
+}
@@ -0,0 +1,265 @@
+package com.harshdeep.payment.idempotency;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.exception.IdempotencyKeyReusedException;
+import com.harshdeep.payment.journal.IdempotencyRecord;
+import com.harshdeep.payment.journal.PaymentJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response given for each {@code Idempotency-Key} so a retried request gets the
+ * same response instead of being processed twice.
+ *
+ * <p>The first request with a key runs; duplicates that arrive while it is running wait on its
+ * future and get its response without holding a thread. A request that fails stores nothing,
+ * so it can be retried with the same key; duplicates that were waiting on it get the same
+ * error. Successful responses are journaled before anyone sees them and replayed into the
+ * store at startup.
+ *
+ * <p>Keys are spread over {@link #STRIPES} insertion-ordered maps, each behind its own lock,
+ * so requests only contend when their keys share a stripe. Every key lives for the same TTL,
+ * which makes the eldest entry of a stripe also the first to expire: expired keys are dropped
+ * from the head as new ones arrive, and the eldest is evicted early when a stripe is full.
+ * The journal write for a payment and for its key are separate, so a crash between the two
+ * forgets that one key.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int STRIPES = 16;
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final PaymentJournal journal;
+    private final long ttlMillis;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter replays;
+    private final Counter evictions;
+
+    public IdempotencyStore(PaymentJournal journal,
+                            MeterRegistry meterRegistry,
+                            @Value("${payment.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${payment.idempotency.max-keys:100000}") int maxKeys) {
+        if (maxKeys < STRIPES) {
+            throw new IllegalArgumentException("payment.idempotency.max-keys must be at least " + STRIPES);
+        }
+        this.journal = journal;
+        this.ttlMillis = ttl.toMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxKeys / STRIPES);
+        }
+        this.replays = Counter.builder("payment.idempotency.replays")
+                .description("Requests answered with the stored response for their idempotency key")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("payment.idempotency.evictions")
+                .description("Idempotency keys dropped before their TTL because the store was full")
+                .register(meterRegistry);
+        Gauge.builder("payment.idempotency.keys", this, IdempotencyStore::size)
+                .description("Idempotency keys held, including requests still running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code request} unless {@code key} was seen before, in which case the response it
+     * got is returned with an {@value #REPLAYED_HEADER} header, once it is known.
+     *
+     * @param key         the scoped key; user and endpoint must be part of it
+     * @param fingerprint identifies the request; a key reused for a different one is rejected
+     */
+    public CompletableFuture<ResponseEntity<Payment>> execute(String key, String fingerprint,
+                                                              Supplier<CompletableFuture<ResponseEntity<Payment>>> request) {
+        Stripe stripe = stripeFor(key);
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(fingerprint, now + ttlMillis);
+        Entry existing = stripe.putIfAbsent(key, entry, now);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+            }
+            return existing.response.thenApply(stored -> {
+                replays.increment();
+                return replay(stored);
+            });
+        }
+
+        CompletableFuture<ResponseEntity<Payment>> result;
+        try {
+            result = request.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((response, error) -> {
+            if (error != null) {
+                stripe.remove(key, entry);
+                entry.response.completeExceptionally(error);
+                return;
+            }
+            IdempotencyRecord stored = new IdempotencyRecord(key, fingerprint, entry.expiresAtMillis,
+                    response.getStatusCode().value(),
+                    response.getHeaders().getLocation() == null ? null : response.getHeaders().getLocation().toString(),
+                    copy(response.getBody()));
+            try {
+                journal.appendIdempotency(stored);
+            } catch (RuntimeException e) {
+                stripe.remove(key, entry);
+                entry.response.completeExceptionally(e);
+                throw e;
+            }
+            entry.response.complete(stored);
+        });
+    }
+
+    /**
+     * Puts back a response read from the journal at startup, unless it has expired since.
+     */
+    public void restore(IdempotencyRecord stored) {
+        long now = System.currentTimeMillis();
+        if (stored.expiresAtMillis() <= now) {
+            return;
+        }
+        Entry entry = new Entry(stored.fingerprint(), stored.expiresAtMillis());
+        entry.response.complete(stored);
+        stripeFor(stored.key()).put(stored.key(), entry, now);
+    }
+
+    /**
+     * Scopes a client key to the user and endpoint it was sent to, so two users (or the same
+     * key on create and refund) never collide.
+     */
+    public static String scope(String user, String endpoint, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        return user + '\n' + endpoint + '\n' + key;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static ResponseEntity<Payment> replay(IdempotencyRecord stored) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            builder.header(HttpHeaders.LOCATION, stored.location());
+        }
+        return builder.body(stored.payment());
+    }
+
+    // The stored body must not change when the original entity is later settled or refunded
+    private static Payment copy(Payment payment) {
+        Payment copy = new Payment();
+        copy.setId(payment.getId());
+        copy.setUserId(payment.getUserId());
+        copy.setCurrency(payment.getCurrency());
+        copy.setAmountMinor(payment.getAmountMinor());
+        copy.setPaymentMethod(payment.getPaymentMethod());
+        copy.setStatus(payment.getStatus());
+        copy.setTransactionId(payment.getTransactionId());
+        copy.setRemarks(payment.getRemarks());
+        copy.setCreatedAt(payment.getCreatedAt());
+        copy.setVersion(payment.getVersion());
+        return copy;
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAtMillis;
+        final CompletableFuture<IdempotencyRecord> response = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+        private final int capacity;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        // Returns the live entry already held for the key, or null after adding this one
+        Entry putIfAbsent(String key, Entry entry, long now) {
+            lock.lock();
+            try {
+                Entry existing = entries.get(key);
+                if (existing != null && existing.expiresAtMillis > now) {
+                    return existing;
+                }
+                put(key, entry, now);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String key, Entry entry, long now) {
+            lock.lock();
+            try {
+                expire(now);
+                // Re-insert so a reused key moves to the tail with its new expiry
+                entries.remove(key);
+                entries.put(key, entry);
+                if (entries.size() > capacity) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String key, Entry entry) {
+            lock.lock();
+            try {
+                entries.remove(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expire(long now) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext() && it.next().getValue().expiresAtMillis <= now) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.harshdeep.payment.journal;
+
+import com.harshdeep.payment.entity.Payment;
+
+/**
+ * The response first given for an idempotency key, journaled so a retry after a restart gets
+ * it again instead of repeating the request.
+ *
+ * @param key             the scoped key (user, endpoint and client key)
+ * @param fingerprint     identifies the request the key was first used with
+ * @param expiresAtMillis epoch millis after which the key may be reused
+ * @param status          HTTP status of the response
+ * @param location        its {@code Location} header, or null
+ * @param payment         its body
+ */
+public record IdempotencyRecord(String key, String fingerprint, long expiresAtMillis,
+                                int status, String location, Payment payment) {
+}
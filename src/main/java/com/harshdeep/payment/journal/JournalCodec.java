@@ -0,0 +1,160 @@
+package com.harshdeep.payment.journal;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary layout of journal records.
+ *
+ * <p>A {@link #PAYMENT} record is a full snapshot of the payment after a write, so replay
+ * only has to keep the last record per payment ID. An {@link #ARCHIVED} record lists payment
+ * IDs that moved to the archive and must not be restored to the table. An {@link #IDEMPOTENCY}
+ * record holds a stored response: key, fingerprint, expiry, status and location followed by a
+ * complete PAYMENT record for the body. Strings are written as a signed short
+ * length (-1 for null) followed by UTF-8 bytes; the status is its enum ordinal, so new
+ * statuses must only ever be appended to {@link PaymentStatus}.
+ */
+final class JournalCodec {
+
+    static final byte PAYMENT = 1;
+    static final byte ARCHIVED = 2;
+    static final byte IDEMPOTENCY = 3;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encodePayment(Payment payment) {
+        byte[] currency = utf8(payment.getCurrency());
+        byte[] method = utf8(payment.getPaymentMethod());
+        byte[] transactionId = utf8(payment.getTransactionId());
+        byte[] remarks = utf8(payment.getRemarks());
+
+        int size = 1 + 8 * 4 + 4 + 8 + 1
+                + sizeOf(currency) + sizeOf(method) + sizeOf(transactionId) + sizeOf(remarks);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(PAYMENT);
+        buffer.putLong(payment.getId());
+        buffer.putLong(payment.getUserId());
+        buffer.putLong(payment.getAmountMinor());
+        LocalDateTime createdAt = payment.getCreatedAt();
+        buffer.putLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(createdAt.getNano());
+        buffer.putLong(payment.getVersion() == null ? 0 : payment.getVersion());
+        buffer.put((byte) payment.getStatus().ordinal());
+        putString(buffer, currency);
+        putString(buffer, method);
+        putString(buffer, transactionId);
+        putString(buffer, remarks);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a PAYMENT record body positioned just after the type byte.
+     */
+    static Payment decodePayment(ByteBuffer buffer) {
+        Payment payment = new Payment();
+        payment.setId(buffer.getLong());
+        payment.setUserId(buffer.getLong());
+        long amountMinor = buffer.getLong();
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        payment.setCreatedAt(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+        payment.setVersion(buffer.getLong());
+        payment.setStatus(PaymentStatus.values()[buffer.get()]);
+        payment.setCurrency(getString(buffer));
+        payment.setAmountMinor(amountMinor);
+        payment.setPaymentMethod(getString(buffer));
+        payment.setTransactionId(getString(buffer));
+        payment.setRemarks(getString(buffer));
+        return payment;
+    }
+
+    static byte[] encodeArchived(long[] ids) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 * ids.length);
+        buffer.put(ARCHIVED);
+        buffer.putInt(ids.length);
+        for (long id : ids) {
+            buffer.putLong(id);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an ARCHIVED record body positioned just after the type byte.
+     */
+    static long[] decodeArchived(ByteBuffer buffer) {
+        long[] ids = new long[buffer.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getLong();
+        }
+        return ids;
+    }
+
+    static byte[] encodeIdempotency(IdempotencyRecord record) {
+        byte[] key = utf8(record.key());
+        byte[] fingerprint = utf8(record.fingerprint());
+        byte[] location = utf8(record.location());
+        byte[] payment = encodePayment(record.payment());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + sizeOf(key) + sizeOf(fingerprint) + 8 + 2
+                + sizeOf(location) + payment.length);
+        buffer.put(IDEMPOTENCY);
+        putString(buffer, key);
+        putString(buffer, fingerprint);
+        buffer.putLong(record.expiresAtMillis());
+        buffer.putShort((short) record.status());
+        putString(buffer, location);
+        buffer.put(payment);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an IDEMPOTENCY record body positioned just after the type byte.
+     */
+    static IdempotencyRecord decodeIdempotency(ByteBuffer buffer) {
+        String key = getString(buffer);
+        String fingerprint = getString(buffer);
+        long expiresAtMillis = buffer.getLong();
+        int status = buffer.getShort();
+        String location = getString(buffer);
+        if (buffer.get() != PAYMENT) {
+            throw new IllegalStateException("Idempotency record without a payment");
+        }
+        return new IdempotencyRecord(key, fingerprint, expiresAtMillis, status, location, decodePayment(buffer));
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return 2 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        if (value.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal string field too long: " + value.length + " bytes");
+        }
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
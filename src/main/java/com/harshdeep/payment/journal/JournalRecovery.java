@@ -0,0 +1,134 @@
+package com.harshdeep.payment.journal;
+
+import com.harshdeep.payment.archive.PaymentArchive;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.idempotency.IdempotencyStore;
+import com.harshdeep.payment.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the payment table from the journal at startup, before anything reads it.
+ *
+ * <p>The journal holds a full snapshot per write, so replay keeps the last snapshot of each
+ * payment and writes them back in batches. Replay starts from the journal's last checkpoint,
+ * so this covers the payments still in the table plus what was written since, not the whole
+ * history. Payments recorded as archived are dropped, since
+ * they are served from the archive now. Each payment goes back to the shard encoded in its id.
+ * Stored idempotent responses go back into the {@link IdempotencyStore}. Payments that were
+ * still INITIATED are listed in {@link #unsettledPayments()} so they can be settled again.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class JournalRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalRecovery.class);
+    private static final int BATCH_SIZE = 500;
+    private static final String MERGE_SQL = "MERGE INTO payment (id, user_id, amount_minor, currency, "
+            + "payment_method, status, transaction_id, remarks, created_at, version) "
+            + "KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final PaymentJournal journal;
+    private final PaymentArchive archive;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter router;
+    private final IdempotencyStore idempotency;
+    private List<Long> unsettled = List.of();
+
+    public JournalRecovery(PaymentJournal journal, PaymentArchive archive, JdbcTemplate jdbcTemplate,
+                           ShardRouter router, IdempotencyStore idempotency) {
+        this.journal = journal;
+        this.archive = archive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.router = router;
+        this.idempotency = idempotency;
+    }
+
+    @PostConstruct
+    public void recover() {
+        if (!journal.isEnabled()) {
+            log.info("Payment journal disabled; payments will not survive a restart");
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Long, Payment> latest = new LinkedHashMap<>();
+        long[] records = {0};
+        journal.open(payment -> {
+            latest.put(payment.getId(), payment);
+            records[0]++;
+        }, archivedId -> {
+            latest.remove(archivedId);
+            records[0]++;
+        }, stored -> {
+            idempotency.restore(stored);
+            records[0]++;
+        });
+        if (records[0] == 0) {
+            return;
+        }
+        // A crash between writing a segment and journaling it leaves rows in both places
+        LocalDateTime horizon = archive.horizon();
+        if (horizon != null) {
+            latest.values().removeIf(p -> !p.getCreatedAt().isAfter(horizon) && archive.find(p.getId()).isPresent());
+        }
+
+        Map<Integer, List<Payment>> batches = new HashMap<>();
+        for (Payment payment : latest.values()) {
+            int shard = router.shardOf(payment.getId());
+            List<Payment> batch = batches.computeIfAbsent(shard, s -> new ArrayList<>(BATCH_SIZE));
+            batch.add(payment);
+            if (batch.size() == BATCH_SIZE) {
+                router.onShard(shard, () -> write(batch));
+                batch.clear();
+            }
+        }
+        batches.forEach((shard, batch) -> router.onShard(shard, () -> write(batch)));
+        unsettled = latest.values().stream()
+                .filter(p -> p.getStatus() == PaymentStatus.INITIATED)
+                .map(Payment::getId)
+                .toList();
+
+        log.info("Recovered {} payment(s) ({} awaiting settlement) and {} idempotency key(s) "
+                        + "from {} journal record(s) in {} ms",
+                latest.size(), unsettled.size(), idempotency.size(), records[0],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * IDs of recovered payments that were accepted but not settled before the restart.
+     */
+    public List<Long> unsettledPayments() {
+        return unsettled;
+    }
+
+    private void write(List<Payment> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(MERGE_SQL, batch, batch.size(), (ps, p) -> {
+            ps.setLong(1, p.getId());
+            ps.setLong(2, p.getUserId());
+            ps.setLong(3, p.getAmountMinor());
+            ps.setString(4, p.getCurrency());
+            ps.setString(5, p.getPaymentMethod());
+            ps.setString(6, p.getStatus().name());
+            ps.setString(7, p.getTransactionId());
+            ps.setString(8, p.getRemarks());
+            ps.setTimestamp(9, p.getCreatedAt() == null ? null : Timestamp.valueOf(p.getCreatedAt()));
+            ps.setLong(10, p.getVersion() == null ? 0 : p.getVersion());
+        });
+    }
+}
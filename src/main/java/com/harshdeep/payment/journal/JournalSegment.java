@@ -0,0 +1,125 @@
+package com.harshdeep.payment.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped journal file.
+ *
+ * <p>Records are framed as {@code [int length][int crc32][body]}, where the CRC covers the
+ * body. The file is zero-filled when created, so a zero length marks the end of the written
+ * data. A frame with an impossible length or a CRC mismatch is a torn write from a crash;
+ * reading stops there and the rest of the segment is discarded.
+ */
+final class JournalSegment {
+
+    static final int FRAME_HEADER = 8;
+
+    private final long number;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private JournalSegment(long number, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment open(long number, Path path, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int mappedSize = (int) Math.max(size, channel.size());
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        return new JournalSegment(number, path, channel, buffer);
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Reads every intact record from the start of the segment and leaves the write position
+     * just after the last one. A torn tail is zeroed so it can't be mistaken for data later.
+     *
+     * @return false if the segment ended in a torn write
+     */
+    boolean scan(Consumer<ByteBuffer> records) {
+        int pos = 0;
+        int limit = buffer.capacity();
+        boolean intact = true;
+        while (pos + FRAME_HEADER <= limit) {
+            int length = buffer.getInt(pos);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || pos + FRAME_HEADER + length > limit
+                    || crc(buffer, pos + FRAME_HEADER, length) != buffer.getInt(pos + 4)) {
+                intact = false;
+                break;
+            }
+            records.accept(buffer.slice(pos + FRAME_HEADER, length));
+            pos += FRAME_HEADER + length;
+        }
+        if (!intact) {
+            for (int i = pos; i < limit; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        position = pos;
+        return intact;
+    }
+
+    boolean hasRoomFor(int bodyLength) {
+        return position + FRAME_HEADER + bodyLength <= buffer.capacity();
+    }
+
+    /**
+     * Appends one framed record; the caller serializes appends and checks room first.
+     * The length goes in last so a scan never sees the frame before its body; pages that
+     * did not reach the disk before a crash are caught by the CRC.
+     */
+    void append(byte[] body, int crc) {
+        buffer.put(position + FRAME_HEADER, body);
+        buffer.putInt(position + 4, crc);
+        buffer.putInt(position, body.length);
+        position += FRAME_HEADER + body.length;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,582 @@
+package com.harshdeep.payment.journal;
+
+import com.harshdeep.payment.entity.Payment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped write-ahead journal of payment writes.
+ *
+ * <p>Every create and status change is appended as a compact binary snapshot and the caller
+ * waits until it is on disk; so are the IDs of payments moved to the archive and the
+ * responses stored for idempotency keys. In
+ * {@code group} sync mode a single flusher thread forces the segment for everything appended
+ * since its last fsync, so concurrent requests share one fsync instead of paying for one each;
+ * {@code each} mode syncs inside every append and is kept as a baseline. When a segment fills
+ * up it is synced and closed and a new one is started.
+ *
+ * <p>Every {@code payment.journal.checkpoint-interval}, closed segments are compacted: the
+ * previous checkpoint and the segments written since are folded into a new checkpoint file
+ * holding the last snapshot of each payment still in the table and the unexpired idempotency
+ * responses, and the folded segments are deleted. Replay reads the checkpoint and then only the
+ * segments after it, so startup time and disk use follow the live data rather than the
+ * whole history.
+ *
+ * <p>Locks are {@link ReentrantLock}s rather than monitors so callers blocked on an fsync
+ * don't pin virtual threads.
+ */
+@Component
+public class PaymentJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".snap";
+
+    public enum SyncMode { GROUP, EACH }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final SyncMode syncMode;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private JournalSegment segment;
+    // Logical offsets: segment number * segment size + position; monotonic across rollover
+    private long appendedOffset;
+    private long flushedOffset;
+    private long appendedRecords;
+    private long flushedRecords;
+    private boolean closed;
+    // Set when an fsync fails; nothing can be acknowledged as durable after that
+    private volatile RuntimeException failure;
+    private Thread flusher;
+    // First segment not folded into the checkpoint; only the checkpoint job changes it after open
+    private long checkpointSegment;
+
+    private final Timer fsyncTimer;
+    private final DistributionSummary groupSize;
+    private final Timer checkpointTimer;
+
+    public PaymentJournal(MeterRegistry meterRegistry,
+                          @Value("${payment.journal.enabled:true}") boolean enabled,
+                          @Value("${payment.journal.directory:./data/journal}") Path directory,
+                          @Value("${payment.journal.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${payment.journal.sync-mode:group}") SyncMode syncMode) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.syncMode = syncMode;
+        this.fsyncTimer = Timer.builder("payment.journal.fsync")
+                .description("Time spent forcing journal segments to disk")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("payment.journal.group.size")
+                .description("Records made durable by one fsync")
+                .register(meterRegistry);
+        this.checkpointTimer = Timer.builder("payment.journal.checkpoint")
+                .description("Time spent compacting closed journal segments into a checkpoint")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the checkpoint, if any, then every intact record of the segments after it in
+     * order, and opens the journal for appends after the last one. Must be called once before
+     * the first append.
+     *
+     * @param payments receives each payment snapshot
+     * @param archived receives each payment ID recorded as archived
+     * @param idempotencyKeys receives each stored idempotent response
+     */
+    public void open(Consumer<Payment> payments, LongConsumer archived, Consumer<IdempotencyRecord> idempotencyKeys) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path checkpoint = latestCheckpoint();
+            if (checkpoint != null) {
+                checkpointSegment = fileNumber(checkpoint, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                read(checkpointSegment, checkpoint, record -> dispatch(record, payments, archived, idempotencyKeys));
+            }
+            // Left over from a checkpoint interrupted before its rename or its cleanup
+            for (Path temporary : files(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX + ".tmp")) {
+                Files.delete(temporary);
+            }
+            for (Path older : files(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX)) {
+                if (!older.equals(checkpoint)) {
+                    Files.delete(older);
+                }
+            }
+            deleteSegmentsBefore(checkpointSegment);
+            List<Path> files = segmentFiles();
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                JournalSegment existing = JournalSegment.open(
+                        fileNumber(file, SEGMENT_PREFIX, SEGMENT_SUFFIX), file, segmentSize);
+                boolean intact = existing.scan(record -> dispatch(record, payments, archived, idempotencyKeys));
+                if (!intact) {
+                    log.warn("Journal segment {} ends in a torn write; discarded the tail after offset {}",
+                            file.getFileName(), existing.position());
+                }
+                if (i == files.size() - 1) {
+                    segment = existing;
+                } else {
+                    existing.close();
+                }
+            }
+            if (segment == null) {
+                segment = newSegment(checkpointSegment);
+            }
+            appendedOffset = offsetOf(segment);
+            flushedOffset = appendedOffset;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open payment journal in " + directory, e);
+        }
+
+        if (syncMode == SyncMode.GROUP) {
+            flusher = new Thread(this::flushLoop, "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        log.info("Payment journal open in {} (segment {}, sync mode {})",
+                directory, segment.path().getFileName(), syncMode);
+    }
+
+    /**
+     * Appends the payment's current state and returns once it is durable.
+     */
+    public void append(Payment payment) {
+        if (!enabled) {
+            return;
+        }
+        awaitDurable(write(List.of(JournalCodec.encodePayment(payment))));
+    }
+
+    /**
+     * Appends several payments and waits for a single fsync covering all of them.
+     */
+    public void appendAll(List<Payment> payments) {
+        if (!enabled || payments.isEmpty()) {
+            return;
+        }
+        List<byte[]> bodies = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            bodies.add(JournalCodec.encodePayment(payment));
+        }
+        awaitDurable(write(bodies));
+    }
+
+    /**
+     * Records that the given payments now live in the archive, so replay drops them.
+     */
+    public void appendArchived(long[] ids) {
+        if (!enabled || ids.length == 0) {
+            return;
+        }
+        awaitDurable(write(List.of(JournalCodec.encodeArchived(ids))));
+    }
+
+    /**
+     * Appends the response stored for an idempotency key and returns once it is durable.
+     */
+    public void appendIdempotency(IdempotencyRecord record) {
+        if (!enabled) {
+            return;
+        }
+        awaitDurable(write(List.of(JournalCodec.encodeIdempotency(record))));
+    }
+
+    private long write(List<byte[]> bodies) {
+        int[] crcs = new int[bodies.size()];
+        for (int i = 0; i < bodies.size(); i++) {
+            crcs[i] = JournalSegment.crc(bodies.get(i));
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Payment journal is closed");
+            }
+            throwIfFailed();
+            for (int i = 0; i < bodies.size(); i++) {
+                byte[] body = bodies.get(i);
+                if (!segment.hasRoomFor(body.length)) {
+                    rollover(body.length);
+                }
+                segment.append(body, crcs[i]);
+            }
+            appendedOffset = offsetOf(segment);
+            appendedRecords += bodies.size();
+            if (syncMode == SyncMode.EACH) {
+                force(segment, bodies.size());
+                flushedOffset = appendedOffset;
+            } else {
+                pending.signal();
+            }
+            return appendedOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long offset) {
+        lock.lock();
+        try {
+            while (flushedOffset < offset) {
+                throwIfFailed();
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            JournalSegment target;
+            long offset;
+            long records;
+            lock.lock();
+            try {
+                while (appendedOffset == flushedOffset && !closed) {
+                    pending.awaitUninterruptibly();
+                }
+                if (closed && appendedOffset == flushedOffset) {
+                    return;
+                }
+                target = segment;
+                offset = appendedOffset;
+                records = appendedRecords - flushedRecords;
+                flushedRecords = appendedRecords;
+            } finally {
+                lock.unlock();
+            }
+
+            // Appenders keep writing while this runs; they join the next group
+            try {
+                force(target, records);
+            } catch (RuntimeException e) {
+                // Waiters rethrow the failure instead of waiting for an fsync that won't come
+                lock.lock();
+                try {
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                flushedOffset = Math.max(flushedOffset, offset);
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Called with the lock held; the old segment is synced before anything lands in the new one
+    private void rollover(int bodyLength) {
+        if (JournalSegment.FRAME_HEADER + bodyLength > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + bodyLength
+                    + " bytes does not fit in a segment of " + segmentSize + " bytes");
+        }
+        JournalSegment full = segment;
+        force(full, 0);
+        try {
+            full.close();
+            segment = newSegment(full.number() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll over payment journal segment", e);
+        }
+        log.info("Payment journal rolled over to {}", segment.path().getFileName());
+    }
+
+    /**
+     * Folds the previous checkpoint and every closed segment into a new checkpoint and deletes
+     * them. The segment being appended to is left alone, so appends carry on meanwhile; the
+     * new checkpoint only becomes visible, by an atomic rename, once it is on disk.
+     */
+    @Scheduled(fixedDelayString = "${payment.journal.checkpoint-interval:PT1M}",
+            initialDelayString = "${payment.journal.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        long upTo;
+        lock.lock();
+        try {
+            if (closed || segment == null || failure != null) {
+                return;
+            }
+            upTo = segment.number();
+        } finally {
+            lock.unlock();
+        }
+        if (upTo == checkpointSegment) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<Long, byte[]> payments = new LinkedHashMap<>();
+        Map<String, byte[]> idempotencyKeys = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        Consumer<ByteBuffer> compact = record -> compact(record, payments, idempotencyKeys, now);
+        try {
+            Path previous = checkpointFile(checkpointSegment);
+            if (Files.exists(previous)) {
+                read(checkpointSegment, previous, compact);
+            }
+            for (Path file : segmentFiles()) {
+                long number = fileNumber(file, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+                if (number >= checkpointSegment && number < upTo) {
+                    read(number, file, compact);
+                }
+            }
+            writeCheckpoint(upTo, payments, idempotencyKeys);
+            Files.deleteIfExists(previous);
+            deleteSegmentsBefore(upTo);
+        } catch (IOException | RuntimeException e) {
+            log.error("Payment journal checkpoint failed; keeping the segments for replay", e);
+            return;
+        }
+        long folded = upTo - checkpointSegment;
+        checkpointSegment = upTo;
+        long elapsed = System.nanoTime() - start;
+        checkpointTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Payment journal checkpoint: folded {} segment(s) into {} payment(s) and {} idempotency key(s) in {} ms",
+                folded, payments.size(), idempotencyKeys.size(), elapsed / 1_000_000);
+    }
+
+    // Keeps the last snapshot per payment and per idempotency key, minus archived payments and expired keys
+    private static void compact(ByteBuffer record, Map<Long, byte[]> payments,
+                                Map<String, byte[]> idempotencyKeys, long now) {
+        byte type = record.get(0);
+        if (type == JournalCodec.PAYMENT) {
+            payments.put(record.getLong(1), bytesOf(record));
+        } else if (type == JournalCodec.ARCHIVED) {
+            for (long id : JournalCodec.decodeArchived(record.position(1))) {
+                payments.remove(id);
+            }
+        } else if (type == JournalCodec.IDEMPOTENCY) {
+            byte[] body = bytesOf(record);
+            IdempotencyRecord stored = JournalCodec.decodeIdempotency(record.position(1));
+            if (stored.expiresAtMillis() <= now) {
+                idempotencyKeys.remove(stored.key());
+            } else {
+                idempotencyKeys.put(stored.key(), body);
+            }
+        } else {
+            log.warn("Dropping journal record of unknown type {} from the checkpoint", type);
+        }
+    }
+
+    private void writeCheckpoint(long number, Map<Long, byte[]> payments,
+                                 Map<String, byte[]> idempotencyKeys) throws IOException {
+        long size = 0;
+        for (byte[] body : payments.values()) {
+            size += JournalSegment.FRAME_HEADER + body.length;
+        }
+        for (byte[] body : idempotencyKeys.values()) {
+            size += JournalSegment.FRAME_HEADER + body.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Journal checkpoint of " + size + " bytes is too large to map");
+        }
+
+        Path target = checkpointFile(number);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        JournalSegment file = JournalSegment.open(number, temporary, (int) size);
+        try {
+            for (byte[] body : payments.values()) {
+                file.append(body, JournalSegment.crc(body));
+            }
+            for (byte[] body : idempotencyKeys.values()) {
+                file.append(body, JournalSegment.crc(body));
+            }
+            file.force();
+        } finally {
+            file.close();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    // Makes the rename durable before the segments it replaces are deleted
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the rename is still atomic there
+            log.debug("Cannot sync journal directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // Reads a checkpoint or a closed segment: both are complete, so a bad frame is corruption, not a torn write
+    private static void read(long number, Path file, Consumer<ByteBuffer> records) throws IOException {
+        JournalSegment reader = JournalSegment.open(number, file, 0);
+        try {
+            if (!reader.scan(records)) {
+                throw new IllegalStateException("Journal file " + file.getFileName() + " is corrupt");
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void deleteSegmentsBefore(long number) throws IOException {
+        for (Path file : segmentFiles()) {
+            if (fileNumber(file, SEGMENT_PREFIX, SEGMENT_SUFFIX) < number) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static byte[] bytesOf(ByteBuffer record) {
+        byte[] body = new byte[record.remaining()];
+        record.get(0, body);
+        return body;
+    }
+
+    private void force(JournalSegment target, long records) {
+        long start = System.nanoTime();
+        try {
+            target.force();
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+                log.error("Payment journal fsync failed; rejecting further writes", e);
+            }
+            throw e;
+        }
+        fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (records > 0) {
+            groupSize.record(records);
+        }
+    }
+
+    private void throwIfFailed() {
+        RuntimeException cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Payment journal can no longer sync to disk", cause);
+        }
+    }
+
+    private JournalSegment newSegment(long number) throws IOException {
+        String name = SEGMENT_PREFIX + String.format("%016d", number) + SEGMENT_SUFFIX;
+        return JournalSegment.open(number, directory.resolve(name), segmentSize);
+    }
+
+    private long offsetOf(JournalSegment target) {
+        return target.number() * (long) Integer.MAX_VALUE + target.position();
+    }
+
+    private Path checkpointFile(long number) {
+        return directory.resolve(CHECKPOINT_PREFIX + String.format("%016d", number) + CHECKPOINT_SUFFIX);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        return files(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    private Path latestCheckpoint() throws IOException {
+        List<Path> checkpoints = files(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long fileNumber(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static void dispatch(ByteBuffer record, Consumer<Payment> payments, LongConsumer archived,
+                                 Consumer<IdempotencyRecord> idempotencyKeys) {
+        byte type = record.get();
+        if (type == JournalCodec.PAYMENT) {
+            payments.accept(JournalCodec.decodePayment(record));
+        } else if (type == JournalCodec.ARCHIVED) {
+            for (long id : JournalCodec.decodeArchived(record)) {
+                archived.accept(id);
+            }
+        } else if (type == JournalCodec.IDEMPOTENCY) {
+            idempotencyKeys.accept(JournalCodec.decodeIdempotency(record));
+        } else {
+            log.warn("Skipping journal record of unknown type {}", type);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled || segment == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            closed = true;
+            pending.signalAll();
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        lock.lock();
+        try {
+            segment.force();
+            flushedOffset = appendedOffset;
+            flushed.signalAll();
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,13 +1,107 @@
 package com.harshdeep.payment.repository;
 
 import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    
-    List<Payment> findByUserId(Long userId);
+
+    Optional<Payment> findByTransactionId(String transactionId);
+
+    /**
+     * Moves a payment created at or after {@code createdSince} from {@code expected} to
+     * {@code target} in one statement.
+     *
+     * @return 1 if the payment was in the expected status and recent enough, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.status = :target, p.remarks = :remarks, p.version = p.version + 1"
+            + " where p.id = :id and p.status = :expected and p.createdAt >= :createdSince")
+    int updateStatusIf(@Param("id") Long id,
+                       @Param("expected") PaymentStatus expected,
+                       @Param("target") PaymentStatus target,
+                       @Param("remarks") String remarks,
+                       @Param("createdSince") LocalDateTime createdSince);
+
+    // Keyset pagination on (createdAt, id); the caller passes the page size through the Pageable
+
+    @Query("select p from Payment p order by p.createdAt, p.id")
+    List<Payment> findFirstPage(Pageable pageable);
+
+    @Query("select p from Payment p where p.createdAt > :createdAt"
+            + " or (p.createdAt = :createdAt and p.id > :id) order by p.createdAt, p.id")
+    List<Payment> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    @Query("select p from Payment p where p.userId = :userId order by p.createdAt, p.id")
+    List<Payment> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select p from Payment p where p.userId = :userId and (p.createdAt > :createdAt"
+            + " or (p.createdAt = :createdAt and p.id > :id)) order by p.createdAt, p.id")
+    List<Payment> findPageByUserIdAfter(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    @Query("select p.userId as userId, p.status as status, p.currency as currency,"
+            + " count(p) as count, sum(p.amountMinor) as totalMinor"
+            + " from Payment p group by p.userId, p.status, p.currency")
+    List<PaymentTotals> totalsByUserStatusAndCurrency();
+
+    /**
+     * Oldest settled payments created before the cutoff, locked until the archiver's
+     * transaction ends so they can't change between being archived and deleted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.createdAt < :cutoff and p.status <> :pending"
+            + " order by p.createdAt, p.id")
+    List<Payment> findArchivable(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("pending") PaymentStatus pending,
+                                 Pageable pageable);
+
+    // Forward-only streams; must be consumed inside a transaction
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Payment p order by p.createdAt, p.id")
+    Stream<Payment> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Payment p where p.userId = :userId order by p.createdAt, p.id")
+    Stream<Payment> streamByUserId(@Param("userId") Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Payment p where p.createdAt >= :from and p.createdAt < :to"
+            + " and (:status is null or p.status = :status)"
+            + " and (:currency is null or p.currency = :currency)"
+            + " order by p.createdAt, p.id")
+    Stream<Payment> streamForExport(@Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("status") PaymentStatus status,
+                                    @Param("currency") String currency);
 }
@@ -0,0 +1,14 @@
+package com.harshdeep.payment.repository;
+
+import com.harshdeep.payment.entity.PaymentStatus;
+
+/**
+ * Row of the per-user aggregate used to rebuild payment summaries.
+ */
+public interface PaymentTotals {
+    Long getUserId();
+    PaymentStatus getStatus();
+    String getCurrency();
+    long getCount();
+    Long getTotalMinor();
+}
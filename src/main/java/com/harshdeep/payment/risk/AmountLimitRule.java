@@ -0,0 +1,66 @@
+package com.harshdeep.payment.risk;
+
+import com.harshdeep.payment.entity.Money;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.service.PaymentMetrics;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Declines payments above a per-currency maximum. Configured limits are converted to minor
+ * units once; currencies without their own limit use the default in their own scale.
+ */
+final class AmountLimitRule implements RiskRule {
+
+    static final String DEFAULT = "default";
+
+    private static final long NO_DEFAULT = -1;
+
+    private final String name;
+    private final Map<String, Long> minorLimits = new HashMap<>();
+    // Limits are positive, so NO_DEFAULT marks a rule without a default
+    private final long defaultMajor;
+    private final RiskDecision decision;
+
+    AmountLimitRule(String name, Map<String, Long> limits) {
+        this.name = name;
+        long fallback = NO_DEFAULT;
+        for (Map.Entry<String, Long> limit : limits.entrySet()) {
+            if (limit.getValue() == null || limit.getValue() <= 0) {
+                throw new IllegalArgumentException("risk rule '" + name + "': limit for "
+                        + limit.getKey() + " must be positive");
+            }
+            if (limit.getKey().equalsIgnoreCase(DEFAULT)) {
+                fallback = limit.getValue();
+            } else {
+                String currency = limit.getKey().toUpperCase(Locale.ROOT);
+                minorLimits.put(currency, Money.majorToMinor(limit.getValue(), currency));
+            }
+        }
+        this.defaultMajor = fallback;
+        this.decision = RiskDecision.of(PaymentStatus.FAILED, name,
+                "Payment amount exceeds maximum allowed limit", PaymentMetrics.REASON_AMOUNT_LIMIT);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public RiskDecision evaluate(Payment payment) {
+        Long configured = minorLimits.get(payment.getCurrency());
+        long limit;
+        if (configured != null) {
+            limit = configured;
+        } else if (defaultMajor == NO_DEFAULT) {
+            return null;
+        } else {
+            limit = Money.majorToMinor(defaultMajor, payment.getCurrency());
+        }
+        return payment.getAmountMinor() > limit ? decision : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.harshdeep.payment.risk;
+
+import com.harshdeep.payment.entity.Money;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.service.PaymentMetrics;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Declines payments made with the listed methods (compared ignoring case), either always or
+ * only above a maximum amount.
+ */
+final class PaymentMethodRule implements RiskRule {
+
+    private final String name;
+    private final Set<String> methods = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final Long maxAmount;
+    private final RiskDecision decision;
+
+    PaymentMethodRule(String name, List<String> methods, Long maxAmount) {
+        if (methods.isEmpty()) {
+            throw new IllegalArgumentException("risk rule '" + name + "': methods must not be empty");
+        }
+        if (maxAmount != null && maxAmount <= 0) {
+            throw new IllegalArgumentException("risk rule '" + name + "': max-amount must be positive");
+        }
+        this.name = name;
+        this.methods.addAll(methods);
+        this.maxAmount = maxAmount;
+        this.decision = RiskDecision.of(PaymentStatus.FAILED, name,
+                maxAmount == null ? "Payment method not accepted"
+                        : "Payment amount exceeds the limit for this payment method",
+                PaymentMetrics.REASON_PAYMENT_METHOD);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public RiskDecision evaluate(Payment payment) {
+        if (payment.getPaymentMethod() == null || !methods.contains(payment.getPaymentMethod())) {
+            return null;
+        }
+        if (maxAmount != null && payment.getAmountMinor() <= Money.majorToMinor(maxAmount, payment.getCurrency())) {
+            return null;
+        }
+        return decision;
+    }
+}
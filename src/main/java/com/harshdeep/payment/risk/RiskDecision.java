@@ -0,0 +1,18 @@
+package com.harshdeep.payment.risk;
+
+import com.harshdeep.payment.entity.PaymentStatus;
+
+/**
+ * A risk rule declining a payment. Decisions are built once when the rules are compiled and
+ * shared by every payment they apply to.
+ *
+ * @param rule    name of the rule that decided
+ * @param remarks text stored on the payment, ending with the rule name
+ * @param reason  failure reason tag for the payment metrics
+ */
+public record RiskDecision(PaymentStatus status, String rule, String remarks, String reason) {
+
+    static RiskDecision of(PaymentStatus status, String rule, String message, String reason) {
+        return new RiskDecision(status, rule, message + " (rule: " + rule + ")", reason);
+    }
+}
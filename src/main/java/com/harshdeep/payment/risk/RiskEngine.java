@@ -0,0 +1,104 @@
+package com.harshdeep.payment.risk;
+
+import com.harshdeep.payment.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Decides the outcome of new payments from the rules in {@code payment.risk.rules}.
+ *
+ * <p>The file is compiled into a {@link RiskPipeline} that is swapped in through a volatile
+ * field, so readers never lock and always see a whole rule set. The file is checked every
+ * {@code payment.risk.reload-interval} and recompiled when it changes; a file that doesn't
+ * compile is logged and the current rules stay in place. A broken file at startup fails the
+ * startup instead.
+ */
+@Component
+public class RiskEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskEngine.class);
+
+    private final Resource location;
+    private final Counter reloaded;
+    private final Counter reloadFailed;
+    private volatile RiskPipeline pipeline;
+    private long lastModified;
+
+    public RiskEngine(ResourceLoader resourceLoader,
+                      MeterRegistry meterRegistry,
+                      @Value("${payment.risk.rules:classpath:risk-rules.yml}") String location) {
+        this.location = resourceLoader.getResource(location);
+        this.lastModified = lastModified();
+        this.pipeline = RiskPipeline.compile(read(), null);
+        log.info("Loaded {} risk rule(s) from {}", pipeline.size(), this.location);
+
+        this.reloaded = Counter.builder("payment.risk.reloads").tag("result", "success")
+                .description("Risk rule file reloads").register(meterRegistry);
+        this.reloadFailed = Counter.builder("payment.risk.reloads").tag("result", "failure")
+                .description("Risk rule file reloads").register(meterRegistry);
+        Gauge.builder("payment.risk.rules", this, engine -> engine.pipeline.size())
+                .description("Risk rules in effect")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the decision of the first rule that declines the payment, or null if none does
+     */
+    public RiskDecision evaluate(Payment payment) {
+        return pipeline.evaluate(payment);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.risk.reload-interval:PT10S}",
+            initialDelayString = "${payment.risk.reload-interval:PT10S}")
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        try {
+            pipeline = RiskPipeline.compile(read(), pipeline);
+            reloaded.increment();
+            log.info("Reloaded {} risk rule(s) from {}", pipeline.size(), location);
+        } catch (RuntimeException e) {
+            reloadFailed.increment();
+            log.error("Keeping the current risk rules, {} is invalid: {}", location, e.getMessage());
+        }
+    }
+
+    private RiskRules read() {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(location.toString(), location);
+            return new Binder(ConfigurationPropertySources.from(sources))
+                    .bind("risk", RiskRules.class)
+                    .orElseGet(RiskRules::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read risk rules from " + location, e);
+        }
+    }
+
+    // Resources inside a jar report the jar's timestamp; only an edited file on disk reloads
+    private long lastModified() {
+        try {
+            return location.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
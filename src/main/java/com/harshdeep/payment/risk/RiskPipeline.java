@@ -0,0 +1,77 @@
+package com.harshdeep.payment.risk;
+
+import com.harshdeep.payment.entity.Payment;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rules compiled into a flat array. Evaluation walks the array and returns a decision built
+ * at compile time, so deciding a payment allocates nothing. Pipelines are immutable; a reload
+ * compiles a new one.
+ */
+final class RiskPipeline {
+
+    private final RiskRule[] rules;
+
+    private RiskPipeline(RiskRule[] rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * @param previous the pipeline being replaced, whose velocity counters carry over to
+     *                 rules of the same name; null on first load
+     * @throws IllegalArgumentException if a rule is incomplete or names repeat
+     */
+    static RiskPipeline compile(RiskRules config, RiskPipeline previous) {
+        Map<String, VelocityRule> previousVelocity = new HashMap<>();
+        if (previous != null) {
+            for (RiskRule rule : previous.rules) {
+                if (rule instanceof VelocityRule velocity) {
+                    previousVelocity.put(rule.name(), velocity);
+                }
+            }
+        }
+        List<RiskRules.Rule> definitions = config.getRules();
+        RiskRule[] rules = new RiskRule[definitions.size()];
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < rules.length; i++) {
+            RiskRules.Rule definition = definitions.get(i);
+            String name = definition.getName();
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("risk rule #" + (i + 1) + " has no name");
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("risk rule name '" + name + "' is used more than once");
+            }
+            if (definition.getType() == null) {
+                throw new IllegalArgumentException("risk rule '" + name + "' has no type");
+            }
+            rules[i] = switch (definition.getType()) {
+                case AMOUNT_LIMIT -> new AmountLimitRule(name, definition.getLimits());
+                case VELOCITY -> new VelocityRule(name, definition.getMaxPayments(), definition.getWindow(),
+                        definition.getMaxTrackedUsers(), previousVelocity.get(name));
+                case PAYMENT_METHOD -> new PaymentMethodRule(name, definition.getMethods(), definition.getMaxAmount());
+            };
+        }
+        return new RiskPipeline(rules);
+    }
+
+    // The first rule that declines decides; null if every rule passes
+    RiskDecision evaluate(Payment payment) {
+        for (RiskRule rule : rules) {
+            RiskDecision decision = rule.evaluate(payment);
+            if (decision != null) {
+                return decision;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return rules.length;
+    }
+}
@@ -0,0 +1,16 @@
+package com.harshdeep.payment.risk;
+
+import com.harshdeep.payment.entity.Payment;
+
+/**
+ * One compiled check in a {@link RiskPipeline}.
+ */
+interface RiskRule {
+
+    String name();
+
+    /**
+     * @return the decision if this rule declines the payment, or null to pass it on
+     */
+    RiskDecision evaluate(Payment payment);
+}
@@ -0,0 +1,44 @@
+package com.harshdeep.payment.risk;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contents of the risk rules file (under the {@code risk} key). Rules run in the order
+ * listed; the first one that declines a payment decides it, and a payment no rule declines
+ * goes on to the payment gateway.
+ */
+@Getter
+@Setter
+public class RiskRules {
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum Type { AMOUNT_LIMIT, VELOCITY, PAYMENT_METHOD }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        // Reported in the payment's remarks when this rule declines it
+        private String name;
+        private Type type;
+
+        // amount-limit: maximum amount in whole major units per currency; "default" covers the rest
+        private Map<String, Long> limits = new LinkedHashMap<>();
+
+        // velocity: at most maxPayments per user in each window
+        private Integer maxPayments;
+        private Duration window;
+        private long maxTrackedUsers = 1_000_000;
+
+        // payment-method: these methods are declined outright, or above maxAmount (major units) if set
+        private List<String> methods = new ArrayList<>();
+        private Long maxAmount;
+    }
+}
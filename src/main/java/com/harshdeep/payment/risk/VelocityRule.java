@@ -0,0 +1,87 @@
+package com.harshdeep.payment.risk;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.service.PaymentMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Declines a user's payments beyond {@code maxPayments} per fixed window. A payment counts
+ * when it passes this rule, even if a later rule or the gateway declines it, so attempts
+ * that end up failing still use up the limit; payments this rule declines don't count.
+ * Counters of users idle for a whole window are evicted.
+ */
+final class VelocityRule implements RiskRule {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final Function<Long, Window> NEW_WINDOW = userId -> new Window();
+
+    private final String name;
+    private final int maxPayments;
+    private final Duration window;
+    private final long windowNanos;
+    private final long origin;
+    private final Cache<Long, Window> windows;
+    private final RiskDecision decision;
+
+    VelocityRule(String name, Integer maxPayments, Duration window, long maxTrackedUsers, VelocityRule previous) {
+        if (maxPayments == null || maxPayments < 1 || maxPayments > COUNT_MASK) {
+            throw new IllegalArgumentException("risk rule '" + name + "': max-payments must be between 1 and "
+                    + COUNT_MASK);
+        }
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("risk rule '" + name + "': window must be positive");
+        }
+        this.name = name;
+        this.maxPayments = maxPayments;
+        this.window = window;
+        this.windowNanos = window.toNanos();
+        // Keep the running counts across a reload unless the window itself changed
+        if (previous != null && previous.window.equals(window)) {
+            this.origin = previous.origin;
+            this.windows = previous.windows;
+        } else {
+            this.origin = System.nanoTime();
+            this.windows = Caffeine.newBuilder()
+                    .maximumSize(maxTrackedUsers)
+                    .expireAfterAccess(window)
+                    .build();
+        }
+        this.decision = RiskDecision.of(PaymentStatus.FAILED, name,
+                "Too many payments from this user, try again later", PaymentMetrics.REASON_VELOCITY);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public RiskDecision evaluate(Payment payment) {
+        long windowIndex = (System.nanoTime() - origin) / windowNanos;
+        return windows.get(payment.getUserId(), NEW_WINDOW).tryRecord(windowIndex, maxPayments) ? null : decision;
+    }
+
+    // (window index << COUNT_BITS) | payments counted in that window
+    static final class Window extends AtomicLong {
+
+        boolean tryRecord(long windowIndex, int max) {
+            while (true) {
+                long state = get();
+                long count = (state >>> COUNT_BITS) == windowIndex ? state & COUNT_MASK : 0;
+                if (count >= max) {
+                    return false;
+                }
+                if (compareAndSet(state, (windowIndex << COUNT_BITS) | (count + 1))) {
+                    return true;
+                }
+            }
+        }
+    }
+}
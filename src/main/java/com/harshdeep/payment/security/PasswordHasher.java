@@ -0,0 +1,106 @@
+package com.harshdeep.payment.security;
+
+import com.harshdeep.payment.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work on a small dedicated pool so login and registration bursts cannot take
+ * over the request threads that payment traffic needs. When the pool is full, callers are
+ * rejected immediately with a 429 instead of waiting.
+ *
+ * <p>The returned futures complete on a second small pool of its own, so whatever the caller
+ * chains on them (saving the user, for one) never holds a hashing thread and never queues
+ * behind unrelated work. A permit covers one request from hashing until its completion has
+ * run, so neither queue grows past {@code threads + queue-capacity}.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor completions;
+    private final Semaphore capacity;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.bcrypt.threads:2}") int threads,
+                          @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+                          @Value("${security.bcrypt.completion-threads:2}") int completionThreads) {
+        this.encoder = encoder;
+        this.executor = pool(threads, "bcrypt-");
+        this.completions = pool(completionThreads, "bcrypt-completion-");
+        this.capacity = new Semaphore(threads + queueCapacity);
+
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Password hashing tasks refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks the password and, if it matches a hash made with a lower strength than the
+     * configured encoder's, computes the replacement hash in the same task.
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String hash) {
+        return submit(() -> {
+            if (!encoder.matches(rawPassword, hash)) {
+                return new Verification(false, null);
+            }
+            String upgraded = encoder.upgradeEncoding(hash) ? encoder.encode(rawPassword) : null;
+            return new Verification(true, upgraded);
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many authentication requests, retry later", 1);
+        }
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(task, executor).thenApplyAsync(hashed -> hashed, completions);
+        } catch (RejectedExecutionException e) {
+            capacity.release();
+            throw e;
+        }
+        result.whenComplete((hashed, error) -> capacity.release());
+        return result;
+    }
+
+    private static ThreadPoolExecutor pool(int threads, String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        completions.shutdownNow();
+    }
+
+    public record Verification(boolean matched, String upgradedHash) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.harshdeep.payment.security;
+
+import com.harshdeep.payment.exception.TooManyRequestsException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} rules to authenticated requests once the handler is known, so
+ * rules are matched against the controller's mapping pattern rather than the raw URI.
+ * A handler that returns a future is dispatched a second time to write its result; that
+ * dispatch was already counted (and runs without the user's authentication), so it is let through.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        RateLimiter.Limit limit = rateLimiter.limitFor(request.getMethod(), pattern.toString());
+        if (limit == null) {
+            return true;
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return true;
+        }
+        long waitNanos = rateLimiter.tryAcquire(limit, auth.getName());
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            throw new TooManyRequestsException("Rate limit exceeded for " + limit.name()
+                    + ", retry in " + retryAfter + "s", retryAfter);
+        }
+        return true;
+    }
+}
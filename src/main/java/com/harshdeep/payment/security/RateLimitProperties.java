@@ -0,0 +1,41 @@
+package com.harshdeep.payment.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-endpoint request limits, applied per authenticated user.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on tracked users per rule; the least recently used are dropped beyond it, even
+    // if not yet refilled, which resets those users' limits (counted in rate.limit.early_evictions)
+    private long maxBuckets = 1_000_000;
+
+    // Buckets untouched for this long are evicted (never before they would have refilled)
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String name;
+        // HTTP method and the controller mapping pattern, e.g. POST /payments/{id}/refund
+        private String method;
+        private String path;
+        // Burst size and sustained requests per second
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,122 @@
+package com.harshdeep.payment.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token buckets per (rule, user), held in a bounded cache per rule.
+ *
+ * <p>Idle buckets expire after {@code idle-timeout}, but never sooner than a bucket takes to
+ * refill completely, so expiry can't hand a user a fresh burst early. The {@code max-buckets}
+ * bound is different: beyond it the least recently used bucket is dropped whatever its state,
+ * and that user starts again from a full burst. Such early resets are counted in
+ * {@code rate.limit.early_evictions}; if it grows, raise {@code max-buckets} above the number of
+ * users active within a refill period.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    // Keeps bucket timestamps positive whatever System.nanoTime() starts at
+    private final long origin = System.nanoTime();
+    private final Limit[] limits;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        List<Limit> compiled = new ArrayList<>();
+        if (properties.isEnabled()) {
+            for (RateLimitProperties.Rule rule : properties.getRules()) {
+                compiled.add(new Limit(rule, properties, meterRegistry, origin));
+                log.info("Rate limit {}: {} {} burst {} at {}/s per user",
+                        rule.getName(), rule.getMethod(), rule.getPath(), rule.getCapacity(), rule.getRefillPerSecond());
+            }
+        }
+        this.limits = compiled.toArray(new Limit[0]);
+    }
+
+    /**
+     * Returns the limit for a method and controller mapping pattern, or null if none applies.
+     */
+    public Limit limitFor(String method, String pattern) {
+        for (Limit limit : limits) {
+            if (limit.method.equalsIgnoreCase(method) && limit.path.equals(pattern)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise nanoseconds until it would be allowed
+     */
+    public long tryAcquire(Limit limit, String user) {
+        long waitNanos = limit.buckets.get(user, key -> new TokenBucket())
+                .tryAcquire(System.nanoTime() - origin, limit.interval, limit.tolerance);
+        if (waitNanos > 0) {
+            limit.rejected.increment();
+        }
+        return waitNanos;
+    }
+
+    public static final class Limit {
+        private final String name;
+        private final String method;
+        private final String path;
+        private final long interval;
+        private final long tolerance;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter rejected;
+        private final Counter earlyEvictions;
+
+        private Limit(RateLimitProperties.Rule rule, RateLimitProperties properties, MeterRegistry meterRegistry,
+                      long origin) {
+            if (rule.getCapacity() < 1 || rule.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("Rate limit " + rule.getName()
+                        + " needs capacity >= 1 and refill-per-second > 0");
+            }
+            this.name = rule.getName();
+            this.method = rule.getMethod();
+            this.path = rule.getPath();
+            this.interval = Math.max(1, Math.round(1_000_000_000 / rule.getRefillPerSecond()));
+            this.tolerance = interval * rule.getCapacity();
+            this.rejected = Counter.builder("rate.limit.rejected")
+                    .tag("rule", name)
+                    .description("Requests refused by the rate limiter")
+                    .register(meterRegistry);
+            this.earlyEvictions = Counter.builder("rate.limit.early_evictions")
+                    .tag("rule", name)
+                    .description("Buckets dropped by the max-buckets bound before they had refilled")
+                    .register(meterRegistry);
+            Duration refill = Duration.ofNanos(tolerance);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaxBuckets())
+                    .expireAfterAccess(refill.compareTo(properties.getIdleTimeout()) > 0 ? refill : properties.getIdleTimeout())
+                    // A bucket is full again once its next arrival time has passed
+                    .<String, TokenBucket>removalListener((user, bucket, cause) -> {
+                        if (cause == RemovalCause.SIZE && bucket != null && bucket.get() > System.nanoTime() - origin) {
+                            earlyEvictions.increment();
+                        }
+                    })
+                    .build();
+            Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+                    .tag("rule", name)
+                    .description("Users with a live rate limit bucket")
+                    .register(meterRegistry);
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+}
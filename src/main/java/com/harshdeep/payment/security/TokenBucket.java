@@ -0,0 +1,34 @@
+package com.harshdeep.payment.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one timestamp, the theoretical
+ * arrival time of the next request, updated with a single compare-and-set.
+ *
+ * <p>Extends {@link AtomicLong} instead of holding one to save an object per user.
+ */
+final class TokenBucket extends AtomicLong {
+
+    /**
+     * Takes one token if available.
+     *
+     * @param now       current time in nanoseconds, never negative
+     * @param interval  nanoseconds per token
+     * @param tolerance interval times the burst capacity
+     * @return 0 if allowed, otherwise the nanoseconds until a token is available
+     */
+    long tryAcquire(long now, long interval, long tolerance) {
+        while (true) {
+            long arrival = get();
+            long next = Math.max(arrival, now) + interval;
+            long allowedAt = next - tolerance;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
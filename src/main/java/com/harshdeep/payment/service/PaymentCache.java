@@ -0,0 +1,69 @@
+package com.harshdeep.payment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harshdeep.payment.entity.Payment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache in front of payment lookups by ID.
+ *
+ * <p>Entries are the instances returned by the repository after a write, and every write path
+ * puts its result here, so the cache never serves a status older than the last committed one.
+ * Cached payments must not be modified by callers.
+ */
+@Component
+public class PaymentCache {
+
+    private final Cache<Long, Payment> payments;
+
+    public PaymentCache(MeterRegistry meterRegistry,
+                        @Value("${payment.cache.max-size:10000}") long maxSize,
+                        @Value("${payment.cache.ttl:5m}") Duration ttl) {
+        this.payments = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, payments, "payments");
+        Gauge.builder("cache.hit.ratio", payments, cache -> cache.stats().hitRate())
+                .tag("cache", "payments")
+                .description("Fraction of lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached payment or loads it; a null from the loader is not cached.
+     *
+     * <p>The loader runs outside the cache: {@code Cache.get(key, loader)} would call it under
+     * a lock of the underlying map, where a virtual thread waiting for a database connection
+     * pins its carrier. A concurrent write's entry is never replaced by what was loaded.
+     */
+    public Payment get(Long id, Function<Long, Payment> loader) {
+        Payment cached = payments.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        Payment loaded = loader.apply(id);
+        if (loaded == null) {
+            return null;
+        }
+        Payment raced = payments.asMap().putIfAbsent(id, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    public void put(Payment payment) {
+        payments.put(payment.getId(), payment);
+    }
+
+    public void invalidate(Long id) {
+        payments.invalidate(id);
+    }
+}
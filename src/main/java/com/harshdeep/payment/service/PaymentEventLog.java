@@ -0,0 +1,89 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One log event per payment transaction, with the details as key-value pairs (rendered by
+ * {@code %kvp} in {@code logback-spring.xml}) instead of a line per processing step.
+ *
+ * <p>Successful transactions are logged at {@code payment.logging.success-sample-rate}
+ * (0.0 to 1.0); failed ones and errors always are. The sampling decision is made before the
+ * event is built, so an event that isn't logged costs a random number.
+ */
+@Component
+public class PaymentEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventLog.class);
+
+    private final double successSampleRate;
+
+    public PaymentEventLog(@Value("${payment.logging.success-sample-rate:1.0}") double successSampleRate) {
+        if (successSampleRate < 0 || successSampleRate > 1) {
+            throw new IllegalArgumentException("payment.logging.success-sample-rate must be between 0 and 1");
+        }
+        this.successSampleRate = successSampleRate;
+    }
+
+    /**
+     * A payment was decided and saved: {@code event} is what happened to it (e.g. created,
+     * settled, refunded), {@code reason} the failure reason recorded in metrics.
+     */
+    public void processed(String event, Payment payment, String reason, long startNanos) {
+        boolean failed = payment.getStatus() == PaymentStatus.FAILED;
+        if (!failed && !sampled()) {
+            return;
+        }
+        LoggingEventBuilder builder = failed ? log.atWarn() : log.atInfo();
+        builder = withPayment(builder, payment)
+                .addKeyValue("reason", reason)
+                .addKeyValue("ms", (System.nanoTime() - startNanos) / 1_000_000);
+        if (failed) {
+            builder = builder.addKeyValue("remarks", payment.getRemarks());
+        }
+        builder.log(event);
+    }
+
+    /**
+     * An operation on a payment was refused or broke; always logged.
+     */
+    public void rejected(String event, Long paymentId, Throwable error) {
+        log.atWarn()
+                .addKeyValue("id", paymentId)
+                .addKeyValue("error", error.getClass().getSimpleName())
+                .addKeyValue("message", error.getMessage())
+                .log(event);
+    }
+
+    /**
+     * Processing a payment threw instead of producing an outcome; always logged, with the stack trace.
+     */
+    public void failed(String event, Payment payment, Throwable error) {
+        withPayment(log.atError(), payment)
+                .setCause(error)
+                .log(event);
+    }
+
+    private boolean sampled() {
+        return successSampleRate >= 1
+                || (successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate);
+    }
+
+    private static LoggingEventBuilder withPayment(LoggingEventBuilder builder, Payment payment) {
+        return builder
+                .addKeyValue("id", payment.getId())
+                .addKeyValue("txn", payment.getTransactionId())
+                .addKeyValue("user", payment.getUserId())
+                .addKeyValue("amount", payment.getAmount())
+                .addKeyValue("currency", payment.getCurrency())
+                .addKeyValue("method", payment.getPaymentMethod())
+                .addKeyValue("status", payment.getStatus());
+    }
+}
@@ -0,0 +1,163 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.archive.PaymentArchive;
+import com.harshdeep.payment.dto.PaymentExportFilter;
+import com.harshdeep.payment.entity.Money;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.repository.PaymentRepository;
+import com.harshdeep.payment.shard.ShardRouter;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Settlement export: payments in a createdAt range written as CSV straight to an output stream.
+ *
+ * <p>Archived payments in the range come first, then each shard's table in turn is read through
+ * a forward-only cursor with each row detached after it is written, so heap use doesn't grow with the size of
+ * the export. Count and amount totals per currency and status are accumulated in the same pass
+ * and appended after a blank line as a second CSV table.
+ */
+@Service
+public class PaymentExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentExporter.class);
+    private static final String HEADER =
+            "id,transactionId,userId,amount,currency,status,paymentMethod,createdAt,remarks\n";
+    // Fixed width at the column's microsecond precision; LocalDateTime.toString drops trailing zero fields
+    private static final DateTimeFormatter CREATED_AT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSS");
+    private static final String TOTALS_HEADER = "currency,status,count,totalAmount\n";
+
+    private final PaymentRepository repository;
+    private final PaymentArchive archive;
+    private final EntityManager entityManager;
+    private final ShardRouter router;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PaymentExporter(PaymentRepository repository,
+                           PaymentArchive archive,
+                           EntityManager entityManager,
+                           ShardRouter router,
+                           PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.archive = archive;
+        this.entityManager = entityManager;
+        this.router = router;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(PaymentExportFilter filter, boolean includeTotals, OutputStream out) throws IOException {
+        log.info("Exporting payments created in [{}, {}) status={} currency={}",
+                filter.from(), filter.to(), filter.status(), filter.currency());
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // currency -> [status ordinal] -> {count, total minor units}
+        Map<String, long[][]> totals = new TreeMap<>();
+        long[] rows = {0};
+
+        writer.write(HEADER);
+        try {
+            archive.scan(filter.from(), filter.to(), payment -> {
+                if (filter.matches(payment)) {
+                    writeRow(writer, payment, totals);
+                    rows[0]++;
+                }
+            });
+            for (int shard = 0; shard < router.shardCount(); shard++) {
+                router.onShard(shard, () -> readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Payment> payments = repository.streamForExport(
+                            filter.from(), filter.to(), filter.status(), filter.currency())) {
+                        payments.forEach(payment -> {
+                            writeRow(writer, payment, totals);
+                            entityManager.detach(payment);
+                            rows[0]++;
+                        });
+                    }
+                }));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (includeTotals) {
+            writer.write('\n');
+            writer.write(TOTALS_HEADER);
+            PaymentStatus[] statuses = PaymentStatus.values();
+            for (Map.Entry<String, long[][]> entry : totals.entrySet()) {
+                String currency = entry.getKey().isEmpty() ? null : entry.getKey();
+                long[][] byStatus = entry.getValue();
+                for (int i = 0; i < byStatus.length; i++) {
+                    if (byStatus[i][0] == 0) {
+                        continue;
+                    }
+                    writer.write(csv(currency));
+                    writer.write(',');
+                    writer.write(statuses[i].name());
+                    writer.write(',');
+                    writer.write(Long.toString(byStatus[i][0]));
+                    writer.write(',');
+                    writer.write(Money.toDecimal(byStatus[i][1], currency).toPlainString());
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} payment(s) in {} ms", rows[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void writeRow(Writer writer, Payment payment, Map<String, long[][]> totals) {
+        try {
+            writer.write(Long.toString(payment.getId()));
+            writer.write(',');
+            writer.write(csv(payment.getTransactionId()));
+            writer.write(',');
+            writer.write(Long.toString(payment.getUserId()));
+            writer.write(',');
+            writer.write(payment.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(csv(payment.getCurrency()));
+            writer.write(',');
+            writer.write(payment.getStatus().name());
+            writer.write(',');
+            writer.write(csv(payment.getPaymentMethod()));
+            writer.write(',');
+            CREATED_AT.formatTo(payment.getCreatedAt(), writer);
+            writer.write(',');
+            writer.write(csv(payment.getRemarks()));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String currency = payment.getCurrency() == null ? "" : payment.getCurrency();
+        long[] bucket = totals.computeIfAbsent(currency, c -> new long[PaymentStatus.values().length][2])
+                [payment.getStatus().ordinal()];
+        bucket[0]++;
+        bucket[1] += payment.getAmountMinor();
+    }
+
+    // Quotes a field only when it contains a separator, quote or line break
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
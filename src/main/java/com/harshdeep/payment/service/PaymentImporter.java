@@ -0,0 +1,369 @@
+package com.harshdeep.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.harshdeep.payment.dto.ImportRejection;
+import com.harshdeep.payment.dto.ImportSummary;
+import com.harshdeep.payment.entity.Money;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.journal.PaymentJournal;
+import com.harshdeep.payment.repository.PaymentRepository;
+import com.harshdeep.payment.shard.PaymentIdGenerator;
+import com.harshdeep.payment.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bulk import of historical payments from CSV or NDJSON.
+ *
+ * <p>The body is read one line at a time and valid rows are collected into chunks of
+ * {@code payment.import.chunk-size}. Each chunk is inserted with JDBC batching in one
+ * transaction per shard it touches and then evicted from the persistence context (which otherwise lives for the
+ * whole request), so memory stays flat whatever the file size. A bad row only costs its own
+ * chunk: if a batch insert fails, that part of the chunk is retried row by row and only the offending
+ * rows are rejected. Imported payments keep their status, timestamps and transaction IDs; a
+ * missing transaction ID is generated.
+ */
+@Service
+public class PaymentImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentImporter.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("userId", "amount", "currency", "paymentMethod", "status", "createdAt");
+
+    private final PaymentRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter router;
+    private final PaymentIdGenerator idGenerator;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final UserPaymentSummaries summaries;
+    private final PaymentJournal journal;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final Counter acceptedRows;
+    private final Counter rejectedRows;
+
+    public PaymentImporter(PaymentRepository repository,
+                           EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           ShardRouter router,
+                           PaymentIdGenerator idGenerator,
+                           TransactionIdGenerator transactionIdGenerator,
+                           UserPaymentSummaries summaries,
+                           PaymentJournal journal,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${payment.import.chunk-size:1000}") int chunkSize,
+                           @Value("${payment.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.router = router;
+        this.idGenerator = idGenerator;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.summaries = summaries;
+        this.journal = journal;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.acceptedRows = Counter.builder("payment.import.rows").tag("result", "accepted")
+                .description("Rows processed by bulk import").register(meterRegistry);
+        this.rejectedRows = Counter.builder("payment.import.rows").tag("result", "rejected")
+                .description("Rows processed by bulk import").register(meterRegistry);
+    }
+
+    public ImportSummary importPayments(InputStream body, Format format) throws IOException {
+        log.info("Starting {} payment import", format);
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        Map<String, Integer> columns = null;
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = header(line);
+                continue;
+            }
+            run.rows++;
+            try {
+                Payment payment = format == Format.CSV ? fromCsv(line, columns) : fromJson(line);
+                run.add(lineNumber, payment);
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, e.getMessage());
+            }
+            if (run.chunk.size() == chunkSize) {
+                run.flush();
+            }
+        }
+        run.flush();
+
+        long elapsedNanos = System.nanoTime() - run.start;
+        double perSecond = run.rows == 0 ? 0 : run.rows * 1_000_000_000.0 / elapsedNanos;
+        log.info("Import finished: {} row(s), {} accepted, {} rejected in {} ms ({} rows/s)",
+                run.rows, run.accepted, run.rejected, elapsedNanos / 1_000_000, Math.round(perSecond));
+        return new ImportSummary(run.rows, run.accepted, run.rejected, elapsedNanos / 1_000_000, perSecond,
+                run.rejections, run.rejected > run.rejections.size());
+    }
+
+    private Map<String, Integer> header(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Payment fromCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        Map<String, String> values = new HashMap<>();
+        columns.forEach((name, index) -> {
+            if (index < fields.size() && !fields.get(index).isEmpty()) {
+                values.put(name, fields.get(index));
+            }
+        });
+        return toPayment(values::get);
+    }
+
+    private Payment fromJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        return toPayment(name -> {
+            JsonNode value = node.get(name);
+            return value == null || value.isNull() ? null : value.asText();
+        });
+    }
+
+    private Payment toPayment(Function<String, String> field) {
+        Payment payment = new Payment();
+        payment.setUserId(parseLong(required(field, "userId"), "userId"));
+        payment.setCurrency(required(field, "currency"));
+        if (!Money.isSupported(payment.getCurrency())) {
+            throw new IllegalArgumentException("currency " + payment.getCurrency() + " is not a supported ISO 4217 code");
+        }
+        try {
+            payment.setAmount(new BigDecimal(required(field, "amount")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount is not a number");
+        }
+        if (payment.getAmountMinor() <= 0) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+        payment.setPaymentMethod(required(field, "paymentMethod"));
+        payment.setStatus(parseStatus(required(field, "status")));
+        payment.setCreatedAt(parseTimestamp(required(field, "createdAt")));
+        String transactionId = field.apply("transactionId");
+        payment.setTransactionId(transactionId != null ? transactionId : transactionIdGenerator.nextTransactionId());
+        payment.setRemarks(field.apply("remarks"));
+        payment.setId(idGenerator.nextId(router.shardForUser(payment.getUserId())));
+        return payment;
+    }
+
+    private static String required(Function<String, String> field, String name) {
+        String value = field.apply(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value.trim();
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number");
+        }
+    }
+
+    // Imported payments are final; INITIATED would never be settled
+    private static PaymentStatus parseStatus(String value) {
+        try {
+            PaymentStatus status = PaymentStatus.valueOf(value.toUpperCase(Locale.ROOT));
+            if (status != PaymentStatus.INITIATED) {
+                return status;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("status must be SUCCESS, FAILED or REFUNDED");
+    }
+
+    // ISO local date-time, or with an offset converted to the server's zone like createdAt elsewhere
+    private static LocalDateTime parseTimestamp(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (DateTimeParseException e2) {
+                throw new IllegalArgumentException("createdAt is not an ISO-8601 date-time");
+            }
+        }
+    }
+
+    // RFC 4180 fields on a single line: commas separate, double quotes quote, "" escapes a quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String describe(DataAccessException e) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (e instanceof DataIntegrityViolationException && cause.contains("uk_payment_transaction_id")) {
+            return "duplicate transactionId";
+        }
+        return "rejected by the database";
+    }
+
+    /**
+     * State of one import: the pending chunk with the line each row came from, and the counts.
+     */
+    private class Run {
+        final long start = System.nanoTime();
+        final List<Payment> chunk = new ArrayList<>(chunkSize);
+        final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        final List<ImportRejection> rejections = new ArrayList<>();
+        long rows;
+        long accepted;
+        long rejected;
+
+        void add(long line, Payment payment) {
+            chunk.add(payment);
+            chunkLines.add(line);
+        }
+
+        void reject(long line, String error) {
+            rejected++;
+            rejectedRows.increment();
+            if (rejections.size() < maxReportedErrors) {
+                rejections.add(new ImportRejection(line, error));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            // Chunk positions per shard, in file order
+            Map<Integer, List<Integer>> byShard = new TreeMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                byShard.computeIfAbsent(router.shardOf(chunk.get(i).getId()), s -> new ArrayList<>()).add(i);
+            }
+            byShard.forEach((shard, positions) -> router.onShard(shard, () -> insert(positions)));
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        private void insert(List<Integer> positions) {
+            List<Payment> rows = positions.stream().map(chunk::get).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.saveAll(rows);
+                    repository.flush();
+                    journal.appendAll(rows);
+                    entityManager.clear();
+                });
+                rows.forEach(this::accept);
+            } catch (DataAccessException e) {
+                log.warn("Import batch of {} row(s) failed ({}); retrying row by row",
+                        rows.size(), e.getMostSpecificCause().getMessage());
+                for (int i : positions) {
+                    insertOne(chunkLines.get(i), chunk.get(i));
+                }
+            }
+        }
+
+        private void insertOne(long line, Payment payment) {
+            // The failed batch already set a version; start over as a new entity
+            payment.setVersion(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.saveAndFlush(payment);
+                    journal.append(payment);
+                    entityManager.clear();
+                });
+                accept(payment);
+            } catch (DataAccessException e) {
+                reject(line, describe(e));
+            }
+        }
+
+        private void accept(Payment payment) {
+            accepted++;
+            acceptedRows.increment();
+            summaries.record(payment);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Business outcome counters and persistence timers for payments.
+ *
+ * <p>Counters are created once per (status, reason, currency) and then looked up in plain
+ * maps, so recording on the request path is a couple of hash lookups and an add.
+ * Currency tags are limited to ISO 4217 codes to keep the tag set bounded.
+ */
+@Component
+public class PaymentMetrics {
+
+    public static final String REASON_NONE = "none";
+    public static final String REASON_AMOUNT_LIMIT = "amount_limit";
+    public static final String REASON_DECLINED = "declined";
+    public static final String REASON_VELOCITY = "velocity";
+    public static final String REASON_PAYMENT_METHOD = "payment_method";
+    public static final String REASON_GATEWAY_ERROR = "gateway_error";
+
+    private static final Set<String> KNOWN_CURRENCIES = Currency.getAvailableCurrencies().stream()
+            .map(Currency::getCurrencyCode)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final MeterRegistry registry;
+    private final Timer saveTimer;
+    private final Timer saveAllTimer;
+    // Indexed by status ordinal -> reason -> currency
+    private final List<Map<String, Map<String, Counter>>> outcomes;
+
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.saveTimer = saveTimer(registry, "save");
+        this.saveAllTimer = saveTimer(registry, "save_all");
+        this.outcomes = Arrays.stream(PaymentStatus.values())
+                .<Map<String, Map<String, Counter>>>map(status -> new ConcurrentHashMap<>())
+                .toList();
+    }
+
+    public void recordOutcome(Payment payment, String reason) {
+        String currency = currencyTag(payment.getCurrency());
+        PaymentStatus status = payment.getStatus();
+        outcomes.get(status.ordinal())
+                .computeIfAbsent(reason, r -> new ConcurrentHashMap<>())
+                .computeIfAbsent(currency, c -> Counter.builder("payments.processed")
+                        .description("Payments by resulting status, failure reason and currency")
+                        .tag("status", status.name())
+                        .tag("reason", reason)
+                        .tag("currency", c)
+                        .register(registry))
+                .increment();
+    }
+
+    public <T> T timeSave(Supplier<T> save) {
+        return saveTimer.record(save);
+    }
+
+    public void timeSaveAll(Runnable saveAll) {
+        saveAllTimer.record(saveAll);
+    }
+
+    private static Timer saveTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("payment.repository.save")
+                .description("Time spent writing payments through the repository")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private static String currencyTag(String currency) {
+        if (currency == null) {
+            return "none";
+        }
+        String code = currency.toUpperCase(Locale.ROOT);
+        return KNOWN_CURRENCIES.contains(code) ? code : "other";
+    }
+}
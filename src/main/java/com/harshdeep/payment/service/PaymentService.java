@@ -1,103 +1,503 @@
 package com.harshdeep.payment.service;
 
+import com.harshdeep.payment.archive.PaymentArchive;
+import com.harshdeep.payment.dto.BatchItemResult;
+import com.harshdeep.payment.dto.BatchPaymentResponse;
+import com.harshdeep.payment.dto.PaymentCursor;
+import com.harshdeep.payment.dto.PaymentPage;
+import com.harshdeep.payment.dto.PaymentSummary;
 import com.harshdeep.payment.entity.*;
+import com.harshdeep.payment.exception.PaymentConflictException;
 import com.harshdeep.payment.exception.ResourceNotFoundException;
+import com.harshdeep.payment.gateway.GatewayResult;
+import com.harshdeep.payment.gateway.PaymentGateway;
+import com.harshdeep.payment.journal.PaymentJournal;
 import com.harshdeep.payment.repository.PaymentRepository;
+import com.harshdeep.payment.risk.RiskDecision;
+import com.harshdeep.payment.risk.RiskEngine;
+import com.harshdeep.payment.shard.PaymentIdGenerator;
+import com.harshdeep.payment.shard.ShardRouter;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PaymentService {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
-    private static final double SUCCESS_RATE = 0.75; // 75% success rate
+    private static final Comparator<Payment> PAGE_ORDER =
+            Comparator.comparing(Payment::getCreatedAt).thenComparing(Payment::getId);
 
     private final PaymentRepository repository;
-    private final Random random = new Random();
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter router;
+    private final PaymentIdGenerator idGenerator;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final SettlementPipeline settlementPipeline;
+    private final PaymentWriter writer;
+    private final RiskEngine riskEngine;
+    private final PaymentGateway gateway;
+    private final UserPaymentSummaries summaries;
+    private final PaymentCache cache;
+    private final PaymentMetrics metrics;
+    private final PaymentEventLog events;
+    private final PaymentJournal journal;
+    private final PaymentArchive archive;
+    private final boolean asyncProcessing;
+    private final int maxBatchSize;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final Duration refundWindow;
 
-    public PaymentService(PaymentRepository repository) {
+    public PaymentService(PaymentRepository repository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          ShardRouter router,
+                          PaymentIdGenerator idGenerator,
+                          TransactionIdGenerator transactionIdGenerator,
+                          SettlementPipeline settlementPipeline,
+                          PaymentWriter writer,
+                          RiskEngine riskEngine,
+                          PaymentGateway gateway,
+                          UserPaymentSummaries summaries,
+                          PaymentCache cache,
+                          PaymentMetrics metrics,
+                          PaymentEventLog events,
+                          PaymentJournal journal,
+                          PaymentArchive archive,
+                          @Value("${payment.processing.async:false}") boolean asyncProcessing,
+                          @Value("${payment.batch.max-size:1000}") int maxBatchSize,
+                          @Value("${payment.pagination.default-size:50}") int defaultPageSize,
+                          @Value("${payment.pagination.max-size:500}") int maxPageSize,
+                          @Value("${payment.refund.window:P14D}") Duration refundWindow) {
         this.repository = repository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.router = router;
+        this.idGenerator = idGenerator;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.settlementPipeline = settlementPipeline;
+        this.writer = writer;
+        this.riskEngine = riskEngine;
+        this.gateway = gateway;
+        this.summaries = summaries;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.events = events;
+        this.journal = journal;
+        this.archive = archive;
+        this.asyncProcessing = asyncProcessing;
+        this.maxBatchSize = maxBatchSize;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.refundWindow = refundWindow;
     }
 
     public Payment createPayment(Payment payment) {
-        log.info("Creating payment for user ID: {}, Amount: {} {}", 
+        try {
+            return createPaymentAsync(payment).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Like {@link #createPayment} without waiting for the gateway: the future completes once the
+     * payment is decided and saved. Validation errors are thrown straight away.
+     */
+    public CompletableFuture<Payment> createPaymentAsync(Payment payment) {
+        long start = System.nanoTime();
+        requireValid(payment);
+
+        initiate(payment);
+        // The gateway completes on its own callback threads; the insert and fsync move to the writer pool
+        return decideStatus(payment).thenApplyAsync(reason -> {
+            Payment savedPayment = metrics.timeSave(() -> save(payment));
+            onCreated(savedPayment);
+            metrics.recordOutcome(savedPayment, reason);
+            events.processed("payment.created", savedPayment, reason, start);
+            return savedPayment;
+        }, writer::execute).whenComplete((saved, error) -> {
+            if (error != null) {
+                events.failed("payment.create_failed", payment,
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Async mode: stores the payment as INITIATED and returns immediately; a settlement
+     * worker decides the outcome later and clients poll {@code GET /payments/{id}}.
+     */
+    public Payment submitPayment(Payment payment) {
+        log.debug("Submitting payment for async processing, user ID: {}, Amount: {} {}",
                 payment.getUserId(), payment.getAmount(), payment.getCurrency());
+        requireValid(payment);
+
+        return settlementPipeline.submit(() -> {
+            initiate(payment);
+            Payment saved = metrics.timeSave(() -> save(payment));
+            onCreated(saved);
+            return saved;
+        }, saved -> settlePayment(saved.getId()));
+    }
+
+    /**
+     * Settles a payment that was accepted before a restart and is still INITIATED.
+     */
+    public void resumeSettlement(Long id) {
+        settlementPipeline.resume(id, this::settlePayment);
+    }
+
+    void settlePayment(Long id) {
+        long start = System.nanoTime();
+        Payment payment = router.onShard(router.shardOf(id), () -> repository.findById(id)).orElse(null);
+        if (payment == null || payment.getStatus() != PaymentStatus.INITIATED) {
+            log.warn("Skipping settlement of payment {}: not pending", id);
+            return;
+        }
+        String reason = decideStatus(payment).join();
+        Payment settled = metrics.timeSave(() -> save(payment));
+        onTransition(settled, PaymentStatus.INITIATED);
+        metrics.recordOutcome(settled, reason);
+        events.processed("payment.settled", settled, reason, start);
+    }
+
+    public boolean isAsyncProcessing() {
+        return asyncProcessing;
+    }
+
+    /**
+     * Validates and processes a whole batch, then writes the accepted payments
+     * in one transaction per shard so Hibernate can group the inserts into JDBC batches.
+     * Invalid items are reported per index instead of failing the batch.
+     */
+    public BatchPaymentResponse createPayments(List<Payment> payments) {
+        if (payments == null || payments.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one payment");
+        }
+        if (payments.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + payments.size()
+                    + " exceeds maximum of " + maxBatchSize);
+        }
+
+        long start = System.nanoTime();
+        List<BatchItemResult> results = new ArrayList<>(payments.size());
+        List<Payment> accepted = new ArrayList<>(payments.size());
+        List<CompletableFuture<String>> decisions = new ArrayList<>(payments.size());
+
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            String error = validate(payment);
+            if (error != null) {
+                results.add(BatchItemResult.rejected(i, error));
+                continue;
+            }
+            initiate(payment);
+            decisions.add(decideStatus(payment));
+            accepted.add(payment);
+            results.add(BatchItemResult.accepted(i, payment));
+        }
+
+        // Gateway calls for the whole batch run concurrently
+        List<String> reasons = decisions.stream().map(CompletableFuture::join).toList();
+
+        Map<Integer, List<Payment>> byShard = new LinkedHashMap<>();
+        accepted.forEach(p -> byShard.computeIfAbsent(router.shardOf(p.getId()), s -> new ArrayList<>()).add(p));
+        metrics.timeSaveAll(() -> byShard.forEach((shard, rows) -> router.onShard(shard,
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    repository.saveAll(rows);
+                    repository.flush();
+                }))));
+        journal.appendAll(accepted);
+        for (int i = 0; i < accepted.size(); i++) {
+            track(accepted.get(i));
+            metrics.recordOutcome(accepted.get(i), reasons.get(i));
+            events.processed("payment.created", accepted.get(i), reasons.get(i), start);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        double perSecond = accepted.isEmpty() ? 0 : accepted.size() * 1_000_000_000.0 / elapsedNanos;
+        log.info("Batch of {} payment(s) processed: {} accepted, {} rejected in {} ms ({} payments/s)",
+                payments.size(), accepted.size(), payments.size() - accepted.size(),
+                elapsedNanos / 1_000_000, Math.round(perSecond));
+
+        return new BatchPaymentResponse(payments.size(), accepted.size(),
+                payments.size() - accepted.size(), elapsedNanos / 1_000_000, perSecond, results);
+    }
+
+    private void requireValid(Payment payment) {
+        String error = validate(payment);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
 
+    private String validate(Payment payment) {
+        if (payment == null) {
+            return "Payment must not be null";
+        }
+        if (payment.getUserId() == null) {
+            return "userId is required";
+        }
+        if (payment.getCurrency() == null) {
+            return "currency is required";
+        }
+        if (!Money.isSupported(payment.getCurrency())) {
+            return "currency " + payment.getCurrency() + " is not a supported ISO 4217 code";
+        }
+        if (payment.getAmountMinor() <= 0) {
+            return "amount must be positive";
+        }
+        return null;
+    }
+
+    private void initiate(Payment payment) {
+        payment.setId(idGenerator.nextId(router.shardForUser(payment.getUserId())));
         payment.setCreatedAt(LocalDateTime.now());
-        
-        // Generate custom transaction ID: HD-{userId}-{timestamp}
-        String transactionId = String.format("HD-%d-%d", 
-                payment.getUserId(), 
-                System.currentTimeMillis());
+        String transactionId = transactionIdGenerator.nextTransactionId();
         payment.setTransactionId(transactionId);
         
         payment.setStatus(PaymentStatus.INITIATED);
-        log.info("Transaction initiated with ID: {}", transactionId);
+    }
 
-        // Business rule: Amounts over 100,000 automatically fail
-        if (payment.getAmount() > 100000) {
+    // Risk rules first, then the gateway; completes with the failure reason recorded in metrics
+    private CompletableFuture<String> decideStatus(Payment payment) {
+        RiskDecision declined = riskEngine.evaluate(payment);
+        if (declined != null) {
+            payment.setStatus(declined.status());
+            payment.setRemarks(declined.remarks());
+            return CompletableFuture.completedFuture(declined.reason());
+        }
+        return gateway.authorize(payment).handle((result, error) -> applyGateway(payment, result, error));
+    }
+
+    private String applyGateway(Payment payment, GatewayResult result, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
             payment.setStatus(PaymentStatus.FAILED);
-            payment.setRemarks("Payment amount exceeds maximum allowed limit");
-            log.warn("Payment {} failed - Amount exceeds limit: {}", transactionId, payment.getAmount());
-        }
-        // Determine payment status: 75% SUCCESS, 25% FAILED
-        else if (random.nextDouble() < SUCCESS_RATE) {
-            payment.setStatus(PaymentStatus.SUCCESS);
-            payment.setRemarks("Payment processed successfully");
-            log.info("Payment {} completed successfully", transactionId);
-        } else {
+            payment.setRemarks("Payment gateway unavailable: " + cause.getMessage());
+            return PaymentMetrics.REASON_GATEWAY_ERROR;
+        }
+        if (!result.approved()) {
             payment.setStatus(PaymentStatus.FAILED);
-            payment.setRemarks("Payment failed due to insufficient funds or technical error");
-            log.warn("Payment {} failed", transactionId);
+            payment.setRemarks(result.message());
+            return PaymentMetrics.REASON_DECLINED;
         }
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setRemarks(result.reference() == null ? result.message()
+                : result.message() + " (gateway reference: " + result.reference() + ")");
+        return PaymentMetrics.REASON_NONE;
+    }
 
-        Payment savedPayment = repository.save(payment);
-        log.info("Payment saved to database with ID: {}, Status: {}", 
-                savedPayment.getId(), savedPayment.getStatus());
-        
-        return savedPayment;
+    private Payment save(Payment payment) {
+        return router.onShard(router.shardOf(payment.getId()), () -> repository.save(payment));
+    }
+
+    // The journal append returns once the write is on disk, so nothing is acknowledged before it is durable
+    private void onCreated(Payment saved) {
+        journal.append(saved);
+        track(saved);
+    }
+
+    private void track(Payment saved) {
+        summaries.record(saved);
+        cache.put(saved);
+    }
+
+    private void onTransition(Payment saved, PaymentStatus from) {
+        journal.append(saved);
+        summaries.transition(saved, from, saved.getStatus());
+        cache.put(saved);
     }
 
-    public List<Payment> getAllPayments() {
-        log.info("Retrieving all payments");
-        return repository.findAll();
+    public PaymentPage getAllPayments(String cursor, Integer limit) {
+        log.debug("Retrieving payments page after cursor: {}", cursor);
+        int pageSize = pageSize(limit);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        PaymentCursor after = cursor == null ? null : PaymentCursor.decode(cursor);
+        // Every shard returns its own first pageSize + 1 rows past the cursor; the merge keeps the overall first
+        List<List<Payment>> sources = new ArrayList<>(router.onEveryShard(shard -> after == null
+                ? repository.findFirstPage(pageable)
+                : repository.findPageAfter(after.createdAt(), after.id(), pageable)));
+        sources.add(0, archive.page(null, after, pageSize + 1));
+        return toPage(merge(sources, pageSize + 1), pageSize);
     }
 
     public Payment getPayment(Long id) {
-        log.info("Retrieving payment with ID: {}", id);
-        return repository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("Payment not found with ID: {}", id);
-                    return new ResourceNotFoundException("Payment not found with id: " + id);
-                });
+        log.debug("Retrieving payment with ID: {}", id);
+        Payment payment = cache.get(id, key -> router.onShard(router.shardOf(key), () -> repository.findById(key))
+                .or(() -> archive.find(key))
+                .orElse(null));
+        if (payment == null) {
+            log.debug("Payment not found with ID: {}", id);
+            throw new ResourceNotFoundException("Payment not found with id: " + id);
+        }
+        return payment;
+    }
+
+    public Payment getPaymentByTransactionId(String transactionId) {
+        log.debug("Retrieving payment with transaction ID: {}", transactionId);
+        return router.onEveryShard(shard -> repository.findByTransactionId(transactionId)).stream()
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Payment not found with transaction id: " + transactionId));
+    }
+
+    public PaymentPage getPaymentsByUserId(Long userId, String cursor, Integer limit) {
+        log.debug("Retrieving payments page for user ID: {} after cursor: {}", userId, cursor);
+        int pageSize = pageSize(limit);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        PaymentCursor after = cursor == null ? null : PaymentCursor.decode(cursor);
+        List<Payment> rows = router.onShard(router.shardForUser(userId), () -> after == null
+                ? repository.findFirstPageByUserId(userId, pageable)
+                : repository.findPageByUserIdAfter(userId, after.createdAt(), after.id(), pageable));
+        PaymentPage page = toPage(merge(List.of(archive.page(userId, after, pageSize + 1), rows), pageSize + 1),
+                pageSize);
+        log.debug("Found {} payment(s) for user ID: {}", page.getItems().size(), userId);
+        return page;
     }
 
-    public List<Payment> getPaymentsByUserId(Long userId) {
-        log.info("Retrieving all payments for user ID: {}", userId);
-        List<Payment> payments = repository.findByUserId(userId);
-        log.info("Found {} payment(s) for user ID: {}", payments.size(), userId);
-        return payments;
+    /**
+     * Feeds every payment to the sink: archived payments first, like the export, then each
+     * shard's rows as they are read from the database cursor (ordered within a shard). Rows are
+     * detached once handed over so the persistence context stays empty.
+     */
+    public void streamAllPayments(Consumer<Payment> sink) {
+        log.debug("Streaming all payments");
+        archive.forEach(null, sink);
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            router.onShard(shard, () -> readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Payment> payments = repository.streamAll()) {
+                    drain(payments, sink);
+                }
+            }));
+        }
     }
 
+    public void streamPaymentsByUserId(Long userId, Consumer<Payment> sink) {
+        log.debug("Streaming payments for user ID: {}", userId);
+        archive.forEach(userId, sink);
+        router.onShard(router.shardForUser(userId), () -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Payment> payments = repository.streamByUserId(userId)) {
+                drain(payments, sink);
+            }
+        }));
+    }
+
+    private void drain(Stream<Payment> payments, Consumer<Payment> sink) {
+        payments.forEach(payment -> {
+            sink.accept(payment);
+            entityManager.detach(payment);
+        });
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Merges pages of the same range from the archive (first) and the shards; a later copy of a payment wins
+    private List<Payment> merge(List<List<Payment>> sources, int limit) {
+        List<List<Payment>> nonEmpty = sources.stream().filter(rows -> !rows.isEmpty()).toList();
+        if (nonEmpty.size() <= 1) {
+            return nonEmpty.isEmpty() ? List.of() : nonEmpty.get(0);
+        }
+        Map<Long, Payment> byId = new LinkedHashMap<>();
+        nonEmpty.forEach(rows -> rows.forEach(p -> byId.put(p.getId(), p)));
+        List<Payment> merged = new ArrayList<>(byId.values());
+        merged.sort(PAGE_ORDER);
+        return merged.size() <= limit ? merged : merged.subList(0, limit);
+    }
+
+    // Rows were fetched with one extra element to detect whether another page exists
+    private PaymentPage toPage(List<Payment> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new PaymentPage(rows, pageSize, null);
+        }
+        List<Payment> items = rows.subList(0, pageSize);
+        String next = PaymentCursor.after(items.get(pageSize - 1)).encode();
+        return new PaymentPage(new ArrayList<>(items), pageSize, next);
+    }
+
+    public PaymentSummary getSummary(Long userId) {
+        log.debug("Retrieving payment summary for user ID: {}", userId);
+        return summaries.getSummary(userId);
+    }
+
+    /**
+     * Refunds with a single conditional UPDATE so two concurrent refunds of the same payment
+     * cannot both succeed; the affected-row count decides between success and conflict.
+     * Only payments created within {@code payment.refund.window} can be refunded, which keeps
+     * refunds away from archived payments (the archiver requires a longer max-age).
+     */
     public Payment refund(Long id) {
-        log.info("Processing refund for payment ID: {}", id);
-        Payment payment = getPayment(id);
+        long start = System.nanoTime();
+        Payment refunded;
+        try {
+            refunded = router.onShard(router.shardOf(id), () -> transactionTemplate.execute(status -> refundOnShard(id)));
+        } catch (RuntimeException e) {
+            events.rejected("payment.refund_rejected", id, e);
+            throw e;
+        }
+        // Only once the refund has committed, so a failed commit leaves no REFUNDED trace in the journal or cache
+        onTransition(refunded, PaymentStatus.SUCCESS);
+        metrics.recordOutcome(refunded, PaymentMetrics.REASON_NONE);
+        events.processed("payment.refunded", refunded, PaymentMetrics.REASON_NONE, start);
+        return refunded;
+    }
 
-        if (payment.getStatus() != PaymentStatus.SUCCESS) {
-            log.error("Refund failed: Payment {} has status {}", id, payment.getStatus());
-            throw new RuntimeException("Only successful payments can be refunded");
+    private Payment refundOnShard(Long id) {
+        LocalDateTime windowStart = LocalDateTime.now().minus(refundWindow);
+        int updated = metrics.timeSave(() -> repository.updateStatusIf(id,
+                PaymentStatus.SUCCESS, PaymentStatus.REFUNDED, "Payment refunded successfully", windowStart));
+
+        Payment payment = repository.findById(id).orElse(null);
+        if (payment == null) {
+            if (archive.find(id).isPresent()) {
+                throw new PaymentConflictException("Payment " + id + " is past the refund window of "
+                        + refundWindow + " and can no longer be refunded");
+            }
+            throw new ResourceNotFoundException("Payment not found with id: " + id);
+        }
+        if (updated == 0 && payment.getStatus() == PaymentStatus.SUCCESS) {
+            throw new PaymentConflictException("Payment " + id + " is past the refund window of "
+                    + refundWindow + " and can no longer be refunded");
+        }
+        if (updated == 0) {
+            throw new PaymentConflictException("Only successful payments can be refunded, payment "
+                    + id + " is " + payment.getStatus());
         }
 
-        payment.setStatus(PaymentStatus.REFUNDED);
-        payment.setRemarks("Payment refunded successfully");
-        Payment refundedPayment = repository.save(payment);
-        
-        log.info("Payment {} refunded successfully", id);
-        return refundedPayment;
+        return payment;
     }
 }
@@ -0,0 +1,69 @@
+package com.harshdeep.payment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool for the blocking tail of a payment create (the insert and the journal fsync),
+ * so it doesn't run on the gateway threads that deliver every authorization response.
+ *
+ * <p>When the queue is full the thread that completed the gateway call does the write itself.
+ * An authorized payment is never dropped, and the gateway's own threads slowing down is what
+ * pushes back on callers.
+ */
+@Component
+public class PaymentWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentWriter.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Counter callerRuns;
+
+    public PaymentWriter(MeterRegistry meterRegistry,
+                         @Value("${payment.processing.writer-threads:16}") int threads,
+                         @Value("${payment.processing.writer-queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.callerRuns = Counter.builder("payment.writer.caller_runs")
+                .description("Payment writes done on the completing thread because the writer queue was full")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-writer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    callerRuns.increment();
+                    if (!pool.isShutdown()) {
+                        runnable.run();
+                    }
+                });
+
+        Gauge.builder("payment.writer.queue.depth", executor, e -> e.getQueue().size())
+                .description("Payment writes waiting for a writer thread")
+                .register(meterRegistry);
+    }
+
+    // Not an Executor bean on purpose: one would stand in for Spring Boot's default task executor
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Payment writer stopped with {} write(s) still queued", executor.shutdownNow().size());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded worker pool that settles payments off the request thread.
+ *
+ * <p>Capacity is reserved before the payment is written, so when the pipeline is full the
+ * caller gets a 429 and nothing is persisted. A permit covers one payment from submission
+ * until its settlement finishes.
+ */
+@Component
+public class SettlementPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementPipeline.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore capacity;
+    private final Timer settleLatency;
+    private final Counter rejected;
+
+    public SettlementPipeline(MeterRegistry meterRegistry,
+                              @Value("${payment.processing.workers:8}") int workers,
+                              @Value("${payment.processing.queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "settlement-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.capacity = new Semaphore(workers + queueCapacity);
+
+        Gauge.builder("payment.settlement.queue.depth", executor, e -> e.getQueue().size())
+                .description("Payments waiting for a settlement worker")
+                .register(meterRegistry);
+        Gauge.builder("payment.settlement.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Payments currently being settled")
+                .register(meterRegistry);
+        this.settleLatency = Timer.builder("payment.settlement.latency")
+                .description("Time from submission until the payment is settled")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("payment.settlement.rejected")
+                .description("Submissions refused because the pipeline was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code initiate} on the caller's thread and hands its result to {@code settle}
+     * on a worker.
+     *
+     * @throws TooManyRequestsException if the pipeline has no free capacity
+     */
+    public <T> T submit(Supplier<T> initiate, Consumer<T> settle) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException("Payment processing queue is full, retry later", 1);
+        }
+
+        T value;
+        try {
+            value = initiate.get();
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+
+        settleAsync(value, settle);
+        return value;
+    }
+
+    /**
+     * Queues {@code settle} for a value that is already persisted, such as a payment recovered
+     * from the journal, waiting for capacity instead of refusing.
+     */
+    public <T> void resume(T value, Consumer<T> settle) {
+        capacity.acquireUninterruptibly();
+        settleAsync(value, settle);
+    }
+
+    // Runs settle on a worker; the caller holds a permit, which is released once it finishes
+    private <T> void settleAsync(T value, Consumer<T> settle) {
+        long submittedAt = System.nanoTime();
+        executor.execute(() -> {
+            try {
+                settle.accept(value);
+            } catch (RuntimeException e) {
+                log.error("Settlement failed for {}", value, e);
+            } finally {
+                capacity.release();
+                settleLatency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Settlement pipeline stopped with {} payment(s) still queued",
+                    executor.shutdownNow().size());
+        }
+    }
+}
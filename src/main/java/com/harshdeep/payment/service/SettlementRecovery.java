@@ -0,0 +1,39 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.journal.JournalRecovery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands payments that were accepted but not settled before a restart back to the settlement
+ * pipeline once the application is up. Without this they would stay INITIATED, and the
+ * archiver never moves INITIATED payments.
+ */
+@Component
+public class SettlementRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementRecovery.class);
+
+    private final JournalRecovery journalRecovery;
+    private final PaymentService paymentService;
+
+    public SettlementRecovery(JournalRecovery journalRecovery, PaymentService paymentService) {
+        this.journalRecovery = journalRecovery;
+        this.paymentService = paymentService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        List<Long> unsettled = journalRecovery.unsettledPayments();
+        if (unsettled.isEmpty()) {
+            return;
+        }
+        log.info("Resuming settlement of {} payment(s) recovered from the journal", unsettled.size());
+        unsettled.forEach(paymentService::resumeSettlement);
+    }
+}
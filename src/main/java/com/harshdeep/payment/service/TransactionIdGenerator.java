@@ -0,0 +1,57 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.id.NodeId;
+import com.harshdeep.payment.id.TimestampSequence;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates unique, time-ordered transaction IDs of the form {@code HD-XXXXXXXXXXXXX}.
+ *
+ * <p>The 63-bit value packs 41 bits of milliseconds since 2024-01-01, a 10-bit node ID and
+ * a 12-bit per-millisecond sequence, and is written as 13 Crockford base32 characters so the
+ * string sorts the same way as the number. The millisecond and sequence come from a
+ * {@link TimestampSequence}, so the generator never blocks waiting for time to pass.
+ *
+ * <p>IDs are unique across instances as long as each instance runs with a distinct
+ * {@code payment.node-id}. The layout has room for 10 bits of node ID, but the value is held
+ * to {@link NodeId#MAX} like payment IDs, so one setting is valid for both generators.
+ */
+@Component
+public class TransactionIdGenerator {
+
+    public static final String PREFIX = "HD-";
+
+    // Kept at 10 so IDs issued before the node ID was narrowed still sort with new ones
+    private static final int NODE_BITS = 10;
+    private static final int MILLIS_SHIFT = NODE_BITS + TimestampSequence.SEQUENCE_BITS;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeBits;
+    private final TimestampSequence sequence = new TimestampSequence();
+
+    public TransactionIdGenerator(@Value("${payment.node-id:0}") long nodeId) {
+        this.nodeBits = NodeId.check(nodeId) << TimestampSequence.SEQUENCE_BITS;
+    }
+
+    public String nextTransactionId() {
+        return encode(nextId());
+    }
+
+    public long nextId() {
+        long next = sequence.next();
+        return (TimestampSequence.millis(next) << MILLIS_SHIFT) | nodeBits | TimestampSequence.sequence(next);
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,113 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.archive.ArchiveTotals;
+import com.harshdeep.payment.archive.PaymentArchive;
+import com.harshdeep.payment.dto.PaymentSummary;
+import com.harshdeep.payment.dto.SummaryBucket;
+import com.harshdeep.payment.entity.Money;
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import com.harshdeep.payment.repository.PaymentRepository;
+import com.harshdeep.payment.repository.PaymentTotals;
+import com.harshdeep.payment.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user count and amount totals (exact, in minor units) by status and currency, kept up to date as payments are
+ * written so a summary read never touches the payment history.
+ */
+@Component
+@DependsOn("journalRecovery")
+public class UserPaymentSummaries {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPaymentSummaries.class);
+
+    private final PaymentRepository repository;
+    private final PaymentArchive archive;
+    private final ShardRouter router;
+    private final Map<Long, UserTotals> totalsByUser = new ConcurrentHashMap<>();
+
+    public UserPaymentSummaries(PaymentRepository repository, PaymentArchive archive, ShardRouter router) {
+        this.repository = repository;
+        this.archive = archive;
+        this.router = router;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        totalsByUser.clear();
+        List<PaymentTotals> rows = router.onEveryShard(shard -> repository.totalsByUserStatusAndCurrency())
+                .stream().flatMap(List::stream).toList();
+        for (PaymentTotals row : rows) {
+            long total = row.getTotalMinor() == null ? 0 : row.getTotalMinor();
+            totalsFor(row.getUserId()).add(row.getStatus(), row.getCurrency(), row.getCount(), total);
+        }
+        // Archived payments still count; their totals are kept in the segment footers
+        for (ArchiveTotals row : archive.totals()) {
+            totalsFor(row.userId()).add(row.status(), row.currency(), row.count(), row.totalMinor());
+        }
+        log.info("Rebuilt payment summaries for {} user(s) from {} aggregate row(s)",
+                totalsByUser.size(), rows.size());
+    }
+
+    public void record(Payment payment) {
+        totalsFor(payment.getUserId())
+                .add(payment.getStatus(), payment.getCurrency(), 1, payment.getAmountMinor());
+    }
+
+    public void transition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        totalsFor(payment.getUserId())
+                .move(from, to, payment.getCurrency(), payment.getAmountMinor());
+    }
+
+    public PaymentSummary getSummary(Long userId) {
+        UserTotals totals = totalsByUser.get(userId);
+        List<SummaryBucket> buckets = totals == null ? List.of() : totals.snapshot();
+        return new PaymentSummary(userId, buckets);
+    }
+
+    private UserTotals totalsFor(Long userId) {
+        return totalsByUser.computeIfAbsent(userId, id -> new UserTotals());
+    }
+
+    private static final class Bucket {
+        long count;
+        long totalMinor;
+    }
+
+    // Small per-user table; updates for one user are serialized on its own monitor
+    private static final class UserTotals {
+
+        private final Map<PaymentStatus, Map<String, Bucket>> buckets = new EnumMap<>(PaymentStatus.class);
+
+        synchronized void add(PaymentStatus status, String currency, long count, long amountMinor) {
+            Bucket bucket = buckets.computeIfAbsent(status, s -> new HashMap<>())
+                    .computeIfAbsent(currency, c -> new Bucket());
+            bucket.count += count;
+            bucket.totalMinor += amountMinor;
+        }
+
+        synchronized void move(PaymentStatus from, PaymentStatus to, String currency, long amountMinor) {
+            add(from, currency, -1, -amountMinor);
+            add(to, currency, 1, amountMinor);
+        }
+
+        synchronized List<SummaryBucket> snapshot() {
+            List<SummaryBucket> result = new ArrayList<>();
+            buckets.forEach((status, byCurrency) -> byCurrency.forEach((currency, bucket) -> {
+                if (bucket.count != 0) {
+                    result.add(new SummaryBucket(status, currency, bucket.count,
+                            Money.toDecimal(bucket.totalMinor, currency)));
+                }
+            }));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.harshdeep.payment.shard;
+
+import com.harshdeep.payment.id.NodeId;
+import com.harshdeep.payment.id.TimestampSequence;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates payment IDs that carry the shard the payment is stored on.
+ *
+ * <p>The 63-bit value packs 41 bits of milliseconds since 2024-01-01, a 5-bit shard, a 5-bit
+ * node ID and a 12-bit per-millisecond sequence, so IDs are time-ordered, unique across
+ * instances with distinct {@code payment.node-id}s, and {@link #shardOf(long)} finds a
+ * payment's shard without asking any database. The millisecond and sequence come from a
+ * {@link TimestampSequence}.
+ */
+@Component
+public class PaymentIdGenerator {
+
+    public static final int MAX_SHARDS = 1 << 5;
+
+    private static final int SHARD_SHIFT = TimestampSequence.SEQUENCE_BITS + NodeId.BITS;
+    private static final int MILLIS_SHIFT = SHARD_SHIFT + 5;
+
+    private final long nodeBits;
+    private final TimestampSequence sequence = new TimestampSequence();
+
+    public PaymentIdGenerator(@Value("${payment.node-id:0}") long nodeId) {
+        this.nodeBits = NodeId.check(nodeId) << TimestampSequence.SEQUENCE_BITS;
+    }
+
+    public long nextId(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("shard must be between 0 and " + (MAX_SHARDS - 1));
+        }
+        long next = sequence.next();
+        return (TimestampSequence.millis(next) << MILLIS_SHIFT) | ((long) shard << SHARD_SHIFT)
+                | nodeBits | TimestampSequence.sequence(next);
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT) & (MAX_SHARDS - 1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.harshdeep.payment.shard;
+
+/**
+ * The shard the current thread talks to. {@link ShardRoutingDataSource} reads it whenever a
+ * connection is opened, which for JPA is when a transaction begins, so it has to be set
+ * before the transaction starts. Set it through {@link ShardRouter} rather than directly.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    // Null outside any shard scope; the routing data source then uses shard 0, which also holds users
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static Integer set(Integer shard) {
+        Integer previous = CURRENT.get();
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,122 @@
+package com.harshdeep.payment.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard a payment lives on and runs work against it.
+ *
+ * <p>A user's payments all live on shard {@code userId mod shards}, so per-user reads and
+ * writes touch one database; a payment's shard is also encoded in its ID. Queries that span
+ * users run on every shard at once through {@link #onEveryShard}. With sharding disabled
+ * there is a single shard and everything runs inline on the caller's thread.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shards;
+    private final ExecutorService executor;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shards = properties.isEnabled() ? properties.getShards().size() : 1;
+        if (shards < 1 || shards > PaymentIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("payment.sharding.shards must list between 1 and "
+                    + PaymentIdGenerator.MAX_SHARDS + " data sources");
+        }
+        if (shards == 1) {
+            this.executor = null;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(properties.getQueryThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int shardCount() {
+        return shards;
+    }
+
+    public int shardForUser(long userId) {
+        return (int) Math.floorMod(userId, (long) shards);
+    }
+
+    public int shardOf(long paymentId) {
+        return PaymentIdGenerator.shardOf(paymentId);
+    }
+
+    /**
+     * Runs {@code work} with connections routed to {@code shard}. Transactions must begin
+     * inside {@code work}; one that is already open stays on the shard it started on.
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public void onShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code query} on every shard in parallel and returns the results in shard order.
+     * The caller's thread takes shard 0; the first failure is rethrown once all have finished.
+     */
+    public <T> List<T> onEveryShard(IntFunction<T> query) {
+        if (shards == 1) {
+            return List.of(onShard(0, () -> query.apply(0)));
+        }
+        List<Future<T>> futures = new ArrayList<>(shards - 1);
+        for (int shard = 1; shard < shards; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> onShard(target, () -> query.apply(target))));
+        }
+        List<T> results = new ArrayList<>(shards);
+        RuntimeException failure = null;
+        try {
+            results.add(onShard(0, () -> query.apply(0)));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException r ? r : new CompletionException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted while querying shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
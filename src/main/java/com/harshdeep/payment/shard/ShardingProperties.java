@@ -0,0 +1,34 @@
+package com.harshdeep.payment.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payment shards. When disabled, everything runs on the single {@code spring.datasource}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "payment.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    // Threads shared by all scatter-gather queries (one task per shard per query)
+    private int queryThreads = 8;
+
+    // Shard number is the position in this list; adding a shard changes where users live
+    private List<Shard> shards = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maxPoolSize = 10;
+    }
+}
@@ -0,0 +1,24 @@
+-- Applied to every shard at startup when payment.sharding.enabled is true; keep in step with the entities
+CREATE TABLE IF NOT EXISTS payment (
+    id             BIGINT       NOT NULL PRIMARY KEY,
+    user_id        BIGINT       NOT NULL,
+    amount_minor   BIGINT       NOT NULL,
+    currency       VARCHAR(255),
+    payment_method VARCHAR(255),
+    status         VARCHAR(255),
+    transaction_id VARCHAR(255),
+    remarks        VARCHAR(255),
+    created_at     TIMESTAMP(6),
+    version        BIGINT
+);
+CREATE INDEX IF NOT EXISTS idx_payment_user_created ON payment (user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_payment_created ON payment (created_at);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_payment_transaction_id ON payment (transaction_id);
+
+-- Users are only read and written on shard 0
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255) UNIQUE,
+    password   VARCHAR(255),
+    created_at TIMESTAMP(6)
+);
@@ -0,0 +1,33 @@
+package com.harshdeep.payment.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentArchiverTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void refusesToArchivePaymentsThatCanStillBeRefunded() {
+        assertThatThrownBy(() -> archiver(true, Duration.ofDays(14), Duration.ofDays(14)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("payment.refund.window");
+        assertThatNoException().isThrownBy(() -> archiver(true, Duration.ofDays(30), Duration.ofDays(14)));
+        assertThatNoException().isThrownBy(() -> archiver(false, Duration.ofDays(1), Duration.ofDays(14)));
+    }
+
+    private PaymentArchiver archiver(boolean enabled, Duration maxAge, Duration refundWindow) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PaymentArchive archive = new PaymentArchive(registry, enabled, directory, 1024);
+        return new PaymentArchiver(null, archive, null, null, null, null, null, registry,
+                maxAge, 100_000, refundWindow);
+    }
+}
@@ -0,0 +1,107 @@
+package com.harshdeep.payment.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refunds of one payment racing each other over HTTP: the conditional update must let exactly
+ * one of them through and answer the rest with 409.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.gateway.simulated.approval-rate=1.0",
+        "payment.archive.enabled=false",
+        "security.rate-limit.enabled=false"
+})
+class PaymentRefundConcurrencyTest {
+
+    private static final int REFUNDS = 16;
+
+    @TempDir
+    static Path data;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("payment.journal.directory", () -> data.resolve("journal").toString());
+    }
+
+    // Registered once for the class; the application context is shared between the tests
+    private static String token;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void logIn() {
+        if (token == null) {
+            Map<String, String> credentials = Map.of("username", "refund-test", "password", "secret");
+            rest.postForEntity("/auth/register", credentials, String.class);
+            token = rest.postForObject("/auth/login", credentials, String.class);
+        }
+        headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(token);
+    }
+
+    @Test
+    void onlyOneOfConcurrentRefundsSucceeds() throws Exception {
+        Map<String, Object> payment = create(Map.of(
+                "userId", 7, "amount", 25.00, "currency", "USD", "paymentMethod", "CREDIT_CARD"));
+        assertThat(payment.get("status")).isEqualTo("SUCCESS");
+        String refundUrl = "/payments/" + payment.get("id") + "/refund";
+
+        ExecutorService pool = Executors.newFixedThreadPool(REFUNDS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<HttpStatusCode>> refunds = new ArrayList<>();
+            for (int i = 0; i < REFUNDS; i++) {
+                refunds.add(pool.submit(() -> {
+                    start.await();
+                    return rest.exchange(refundUrl, HttpMethod.POST, new HttpEntity<>(headers), String.class)
+                            .getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatusCode> statuses = new ArrayList<>();
+            for (Future<HttpStatusCode> refund : refunds) {
+                statuses.add(refund.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(1);
+            assertThat(statuses).filteredOn(HttpStatus.CONFLICT::equals).hasSize(REFUNDS - 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void clientSuppliedVersionIsIgnored() {
+        Map<String, Object> payment = create(Map.of(
+                "userId", 8, "amount", 10, "currency", "USD", "paymentMethod", "CREDIT_CARD", "version", 5));
+        assertThat(payment.get("version")).isEqualTo(0);
+    }
+
+    private Map<String, Object> create(Map<String, Object> body) {
+        ResponseEntity<Map<String, Object>> response = rest.exchange("/payments", HttpMethod.POST,
+                new HttpEntity<>(body, headers), new ParameterizedTypeReference<>() {});
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response.getBody();
+    }
+}
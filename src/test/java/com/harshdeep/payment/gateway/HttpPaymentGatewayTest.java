@@ -0,0 +1,82 @@
+package com.harshdeep.payment.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.harshdeep.payment.entity.Payment;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpPaymentGatewayTest {
+
+    private static final int QUEUED = 20_000;
+
+    private HttpServer acquirer;
+
+    // Answers every authorization with a 503 after a pause, long enough for the queue to fill up
+    @BeforeEach
+    void startAcquirer() throws IOException {
+        acquirer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        acquirer.createContext("/authorize", exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        acquirer.start();
+    }
+
+    @AfterEach
+    void stopAcquirer() {
+        acquirer.stop(0);
+    }
+
+    @Test
+    void breakerTrippingWithAFullQueueFailsEveryQueuedCall() throws Exception {
+        GatewayProperties properties = new GatewayProperties();
+        properties.setUrl("http://127.0.0.1:" + acquirer.getAddress().getPort() + "/authorize");
+        properties.setMaxConcurrency(1);
+        properties.setMaxQueued(QUEUED);
+        properties.getRetry().setMaxAttempts(1);
+        properties.getCircuitBreaker().setFailureThreshold(1);
+        HttpPaymentGateway gateway = new HttpPaymentGateway(properties, new ObjectMapper(), new SimpleMeterRegistry());
+        try {
+            List<CompletableFuture<GatewayResult>> results = new ArrayList<>(QUEUED + 1);
+            for (int i = 0; i <= QUEUED; i++) {
+                results.add(gateway.authorize(payment(i)));
+            }
+
+            // The one call in flight fails and opens the circuit; every queued call then fails at once
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                    .exceptionally(error -> null)
+                    .get(30, TimeUnit.SECONDS);
+            assertThat(results).allMatch(CompletableFuture::isCompletedExceptionally);
+        } finally {
+            gateway.shutdown();
+        }
+    }
+
+    private static Payment payment(int i) {
+        Payment payment = new Payment();
+        payment.setTransactionId("TXN-TEST-" + i);
+        payment.setUserId((long) i);
+        payment.setCurrency("USD");
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setPaymentMethod("CREDIT_CARD");
+        return payment;
+    }
+}
@@ -0,0 +1,63 @@
+package com.harshdeep.payment.id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Draws IDs from a generator on several threads at once and checks that every ID is unique
+ * and that each thread sees them in strictly increasing order.
+ */
+public final class ConcurrentIds {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    private ConcurrentIds() {
+    }
+
+    /**
+     * @param generator called once per thread, with the thread's index, for the supplier that
+     *                  thread draws from
+     */
+    public static <T extends Comparable<T>> void assertUniqueAndOrdered(
+            IntFunction<Supplier<T>> generator) throws Exception {
+        Set<T> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Supplier<T> next = generator.apply(t);
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    T previous = null;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        T id = next.get();
+                        if (previous != null) {
+                            assertThat(id).isGreaterThan(previous);
+                        }
+                        ids.add(id);
+                        previous = id;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 400k IDs overflow the 4096-per-millisecond sequence many times over
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+}
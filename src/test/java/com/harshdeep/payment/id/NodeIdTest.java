@@ -0,0 +1,23 @@
+package com.harshdeep.payment.id;
+
+import com.harshdeep.payment.service.TransactionIdGenerator;
+import com.harshdeep.payment.shard.PaymentIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class NodeIdTest {
+
+    @Test
+    void bothGeneratorsAcceptTheSameNodeIds() {
+        for (long nodeId : new long[]{-1, NodeId.MAX + 1, 1023}) {
+            assertThatIllegalArgumentException().isThrownBy(() -> new PaymentIdGenerator(nodeId));
+            assertThatIllegalArgumentException().isThrownBy(() -> new TransactionIdGenerator(nodeId));
+        }
+        for (long nodeId : new long[]{0, NodeId.MAX}) {
+            assertThatNoException().isThrownBy(() -> new PaymentIdGenerator(nodeId));
+            assertThatNoException().isThrownBy(() -> new TransactionIdGenerator(nodeId));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.harshdeep.payment.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimestampSequenceTest {
+
+    private static final long NOW = TimestampSequence.EPOCH_MILLIS + 1_000_000;
+    private static final int PER_MILLISECOND = 1 << TimestampSequence.SEQUENCE_BITS;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final TimestampSequence sequence = new TimestampSequence(clock::get);
+
+    @Test
+    void clockGoingBackwardsKeepsCountingFromTheLastValue() {
+        long first = sequence.next();
+        clock.set(NOW - 5_000);
+        long second = sequence.next();
+        long third = sequence.next();
+
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(third).isEqualTo(second + 1);
+        assertThat(TimestampSequence.millis(third)).isEqualTo(NOW - TimestampSequence.EPOCH_MILLIS);
+
+        // Once the clock passes the last issued millisecond again, values follow it
+        clock.set(NOW + 1);
+        long caughtUp = sequence.next();
+        assertThat(TimestampSequence.millis(caughtUp)).isEqualTo(NOW + 1 - TimestampSequence.EPOCH_MILLIS);
+        assertThat(TimestampSequence.sequence(caughtUp)).isZero();
+    }
+
+    @Test
+    void exhaustedSequenceCarriesIntoTheNextMillisecond() {
+        long millis = NOW - TimestampSequence.EPOCH_MILLIS;
+        long previous = -1;
+        for (int i = 0; i < PER_MILLISECOND; i++) {
+            long value = sequence.next();
+            assertThat(TimestampSequence.millis(value)).isEqualTo(millis);
+            assertThat(TimestampSequence.sequence(value)).isEqualTo(i);
+            assertThat(value).isGreaterThan(previous);
+            previous = value;
+        }
+
+        // The clock has not moved: the 4097th value borrows the next millisecond
+        long borrowed = sequence.next();
+        assertThat(TimestampSequence.millis(borrowed)).isEqualTo(millis + 1);
+        assertThat(TimestampSequence.sequence(borrowed)).isZero();
+
+        // And when the clock reaches that millisecond, it continues after the borrowed value
+        clock.set(NOW + 1);
+        long next = sequence.next();
+        assertThat(next).isEqualTo(borrowed + 1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.harshdeep.payment.journal;
+
+import com.harshdeep.payment.entity.Payment;
+import com.harshdeep.payment.entity.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkpointFoldsClosedSegmentsAndReplaysTheSameState() throws Exception {
+        PaymentJournal journal = journal();
+        journal.open(p -> { }, id -> { }, r -> { });
+        for (long id = 1; id <= 200; id++) {
+            journal.append(payment(id, PaymentStatus.SUCCESS));
+        }
+        for (long id = 1; id <= 10; id++) {
+            journal.append(payment(id, PaymentStatus.REFUNDED));
+        }
+        journal.appendArchived(LongStream.rangeClosed(191, 200).toArray());
+        long now = System.currentTimeMillis();
+        journal.appendIdempotency(new IdempotencyRecord("live", "f", now + 60_000, 201, null, payment(1, PaymentStatus.SUCCESS)));
+        journal.appendIdempotency(new IdempotencyRecord("expired", "f", now - 1, 201, null, payment(2, PaymentStatus.SUCCESS)));
+        // Enough more to close the segment holding the records above
+        for (long id = 201; id <= 260; id++) {
+            journal.append(payment(id, PaymentStatus.SUCCESS));
+        }
+        assertThat(files("segment-")).hasSizeGreaterThan(2);
+
+        journal.checkpoint();
+        // One payment past the checkpoint, in the segment still being appended to
+        journal.append(payment(11, PaymentStatus.REFUNDED));
+        journal.close();
+
+        assertThat(files("checkpoint-")).hasSize(1);
+        assertThat(files("segment-")).hasSize(1);
+
+        Map<Long, Payment> replayed = new HashMap<>();
+        Set<Long> archived = new HashSet<>();
+        Set<String> keys = new HashSet<>();
+        PaymentJournal reopened = journal();
+        reopened.open(p -> replayed.put(p.getId(), p), archived::add, r -> keys.add(r.key()));
+        reopened.close();
+
+        assertThat(replayed.size()).isEqualTo(250);
+        assertThat(replayed.keySet()).doesNotContain(191L, 200L);
+        assertThat(replayed.get(1L).getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+        assertThat(replayed.get(11L).getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+        assertThat(replayed.get(12L).getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(replayed.get(12L).getAmountMinor()).isEqualTo(1200);
+        assertThat(archived).isEmpty();
+        assertThat(keys).containsExactly("live");
+    }
+
+    @Test
+    void checkpointWithNothingClosedLeavesTheJournalAlone() throws Exception {
+        PaymentJournal journal = journal();
+        journal.open(p -> { }, id -> { }, r -> { });
+        journal.append(payment(1, PaymentStatus.SUCCESS));
+        journal.checkpoint();
+        journal.close();
+
+        assertThat(files("checkpoint-")).isEmpty();
+        assertThat(files("segment-")).hasSize(1);
+    }
+
+    // Small segments so a couple of hundred payments span several of them
+    private PaymentJournal journal() {
+        return new PaymentJournal(new SimpleMeterRegistry(), true, directory, DataSize.ofKilobytes(4),
+                PaymentJournal.SyncMode.EACH);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix)).toList();
+        }
+    }
+
+    private static Payment payment(long id, PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setUserId(id % 7);
+        payment.setCurrency("USD");
+        payment.setAmountMinor(id * 100);
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setStatus(status);
+        payment.setTransactionId("HD-" + id);
+        payment.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        payment.setVersion(status == PaymentStatus.SUCCESS ? 0L : 1L);
+        return payment;
+    }
+}
@@ -0,0 +1,40 @@
+package com.harshdeep.payment.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void countsBucketsDroppedBeforeTheyRefilled() throws InterruptedException {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName("refund");
+        rule.setMethod("POST");
+        rule.setPath("/payments/{id}/refund");
+        rule.setCapacity(1);
+        rule.setRefillPerSecond(0.01);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(1);
+        properties.setRules(List.of(rule));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimiter limiter = new RateLimiter(properties, registry);
+        RateLimiter.Limit limit = limiter.limitFor("POST", "/payments/{id}/refund");
+
+        // Each user spends their only token, and every new user pushes the previous bucket out
+        for (int user = 0; user < 50; user++) {
+            assertThat(limiter.tryAcquire(limit, "user-" + user)).isZero();
+        }
+
+        double early = 0;
+        for (int i = 0; i < 50 && early == 0; i++) {
+            Thread.sleep(100);
+            limiter.tryAcquire(limit, "probe");
+            early = registry.counter("rate.limit.early_evictions", "rule", "refund").count();
+        }
+        assertThat(early).isPositive();
+    }
+}
@@ -0,0 +1,19 @@
+package com.harshdeep.payment.service;
+
+import com.harshdeep.payment.id.ConcurrentIds;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionIdGeneratorTest {
+
+    @Test
+    void transactionIdsAreUniqueAndOrderedPerThread() throws Exception {
+        TransactionIdGenerator generator = new TransactionIdGenerator(1);
+        ConcurrentIds.assertUniqueAndOrdered(thread -> () -> {
+            String id = generator.nextTransactionId();
+            assertThat(id).startsWith(TransactionIdGenerator.PREFIX);
+            return id;
+        });
+    }
+}
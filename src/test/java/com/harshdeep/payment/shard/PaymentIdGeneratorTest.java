@@ -0,0 +1,22 @@
+package com.harshdeep.payment.shard;
+
+import com.harshdeep.payment.id.ConcurrentIds;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueAcrossThreadsAndKeepTheirShard() throws Exception {
+        PaymentIdGenerator generator = new PaymentIdGenerator(3);
+        ConcurrentIds.assertUniqueAndOrdered(thread -> {
+            int shard = thread % PaymentIdGenerator.MAX_SHARDS;
+            return () -> {
+                long id = generator.nextId(shard);
+                assertThat(PaymentIdGenerator.shardOf(id)).isEqualTo(shard);
+                return id;
+            };
+        });
+    }
+}